@@ -0,0 +1,213 @@
+package net.eherrera.reactor.blocking;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Replacements for block, blockOptional, blockFirst and blockLast for code that blocks on many
+// Monos at once, from request handlers for example:
+//     String value = BlockingBridge.block(mono, Duration.ofSeconds(1));
+// They behave like the Reactor methods (errors are rethrown with Exceptions.propagate, a timeout
+// throws IllegalStateException and cancels, and they can't be called from a non-blocking thread),
+// but the waiting thread is the only thing to wake up: there's no CountDownLatch, the subscriber
+// unparks the caller directly. A platform thread spins for a moment first (on multicore machines),
+// short waits don't pay for a park and an unpark. A virtual thread parks right away, without spinning on its carrier;
+// LockSupport.park unmounts it, so the carrier isn't pinned (there's no monitor involved).
+// Virtual threads need Java 21; on older runtimes every thread is a platform thread.
+public final class BlockingBridge {
+    // Like SynchronousQueue, no spinning on a single CPU, the thread it waits for can't run meanwhile
+    private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 128 : 0;
+    private static final MethodHandle IS_VIRTUAL = isVirtualHandle();
+
+    private BlockingBridge() {
+    }
+
+    public static <T> T block(Mono<T> mono) {
+        return await(mono, new BlockingSubscriber<>(Mode.LAST), -1);
+    }
+
+    public static <T> T block(Mono<T> mono, Duration timeout) {
+        return await(mono, new BlockingSubscriber<>(Mode.LAST), timeout.toNanos());
+    }
+
+    public static <T> Optional<T> blockOptional(Mono<T> mono) {
+        return Optional.ofNullable(block(mono));
+    }
+
+    public static <T> Optional<T> blockOptional(Mono<T> mono, Duration timeout) {
+        return Optional.ofNullable(block(mono, timeout));
+    }
+
+    public static <T> T blockFirst(Flux<T> flux) {
+        return await(flux, new BlockingSubscriber<>(Mode.FIRST), -1);
+    }
+
+    public static <T> T blockFirst(Flux<T> flux, Duration timeout) {
+        return await(flux, new BlockingSubscriber<>(Mode.FIRST), timeout.toNanos());
+    }
+
+    public static <T> T blockLast(Flux<T> flux) {
+        return await(flux, new BlockingSubscriber<>(Mode.LAST), -1);
+    }
+
+    public static <T> T blockLast(Flux<T> flux, Duration timeout) {
+        return await(flux, new BlockingSubscriber<>(Mode.LAST), timeout.toNanos());
+    }
+
+    // Always false before Java 21
+    public static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(thread);
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    private static MethodHandle isVirtualHandle() {
+        try {
+            return MethodHandles.publicLookup()
+                    .findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    // timeoutNanos < 0 waits forever
+    private static <T> T await(Publisher<T> source, BlockingSubscriber<T> subscriber, long timeoutNanos) {
+        if (Schedulers.isInNonBlockingThread()) {
+            throw new IllegalStateException("block()/blockFirst()/blockLast() are blocking, which is not supported in thread "
+                    + Thread.currentThread().getName());
+        }
+        source.subscribe(subscriber);
+        if (!subscriber.done) {
+            if (!isVirtual(subscriber.waiter)) {
+                for (int i = 0; i < SPINS && !subscriber.done; i++) {
+                    Thread.onSpinWait();
+                }
+            }
+            park(subscriber, timeoutNanos);
+        }
+        Throwable e = subscriber.error;
+        if (e != null) {
+            throw Exceptions.propagate(e);
+        }
+        return subscriber.value;
+    }
+
+    private static void park(BlockingSubscriber<?> subscriber, long timeoutNanos) {
+        long deadline = timeoutNanos < 0 ? 0 : System.nanoTime() + timeoutNanos;
+        subscriber.parked = true;
+        while (!subscriber.done) {
+            if (timeoutNanos < 0) {
+                LockSupport.park(subscriber);
+            } else {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    subscriber.dispose();
+                    throw new IllegalStateException("Timeout on blocking read for " + timeoutNanos + " " + TimeUnit.NANOSECONDS);
+                }
+                LockSupport.parkNanos(subscriber, left);
+            }
+            if (Thread.interrupted()) {
+                subscriber.dispose();
+                Thread.currentThread().interrupt();
+                throw Exceptions.propagate(new InterruptedException());
+            }
+        }
+    }
+
+    private enum Mode {
+        FIRST, LAST
+    }
+
+    private static final class BlockingSubscriber<T> implements CoreSubscriber<T> {
+        final Mode mode;
+        final Thread waiter = Thread.currentThread();
+        T value;
+        Throwable error;
+        volatile boolean done;
+        // Set by the waiter before parking, so a Mono that completes while it spins (or on the
+        // waiter itself) doesn't leave an unpark permit behind
+        volatile boolean parked;
+        volatile Subscription subscription;
+        volatile boolean disposed;
+
+        BlockingSubscriber(Mode mode) {
+            this.mode = mode;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (Operators.validate(subscription, s)) {
+                subscription = s;
+                if (disposed) {
+                    s.cancel();
+                } else {
+                    s.request(Long.MAX_VALUE);
+                }
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (done) {
+                return;
+            }
+            value = t;
+            if (mode == Mode.FIRST) {
+                subscription.cancel();
+                complete();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                Operators.onErrorDropped(t, currentContext());
+                return;
+            }
+            value = null;
+            error = t;
+            complete();
+        }
+
+        @Override
+        public void onComplete() {
+            complete();
+        }
+
+        // value and error are published by the volatile write of done
+        void complete() {
+            if (!done) {
+                done = true;
+                if (parked) {
+                    LockSupport.unpark(waiter);
+                }
+            }
+        }
+
+        void dispose() {
+            disposed = true;
+            Subscription s = subscription;
+            if (s != null) {
+                s.cancel();
+            }
+        }
+    }
+}
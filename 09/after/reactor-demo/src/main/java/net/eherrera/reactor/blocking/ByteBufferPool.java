@@ -0,0 +1,126 @@
+package net.eherrera.reactor.blocking;
+
+import reactor.util.Logger;
+import reactor.util.Loggers;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// A pool of direct ByteBuffers of bufferSize bytes, handed out as Chunks that go back to the
+// pool when released. Keeps at most maxIdle buffers, allocates a new one when it's empty.
+// A Chunk that is garbage collected without being released is a leak: it's logged and counted
+// in leaks() (tests can assert it's zero). Its buffer is not recycled: a slice or a duplicate of it
+// may still be reachable and in use, and the next Chunk would share its bytes.
+public final class ByteBufferPool {
+    private static final Logger log = Loggers.getLogger(ByteBufferPool.class);
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final int bufferSize;
+    private final int maxIdle;
+    private final Deque<ByteBuffer> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicLong allocated = new AtomicLong();
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+    private final AtomicLong leaks = new AtomicLong();
+
+    private ByteBufferPool(int bufferSize, int maxIdle) {
+        if (bufferSize < 1 || maxIdle < 0) {
+            throw new IllegalArgumentException("Expected bufferSize >= 1 and maxIdle >= 0, was "
+                    + bufferSize + " and " + maxIdle);
+        }
+        this.bufferSize = bufferSize;
+        this.maxIdle = maxIdle;
+    }
+
+    public static ByteBufferPool create(int bufferSize, int maxIdle) {
+        return new ByteBufferPool(bufferSize, maxIdle);
+    }
+
+    public Chunk acquire() {
+        ByteBuffer buffer = idle.pollFirst();
+        if (buffer == null) {
+            allocated.incrementAndGet();
+            buffer = ByteBuffer.allocateDirect(bufferSize);
+        } else {
+            idleCount.decrementAndGet();
+            buffer.clear();
+        }
+        acquired.incrementAndGet();
+        return new Chunk(this, buffer);
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    // Buffers allocated, in steady state it stops growing
+    public long allocated() {
+        return allocated.get();
+    }
+
+    // Chunks acquired and not released (or collected) yet
+    public long outstanding() {
+        return acquired.get() - released.get() - leaks.get();
+    }
+
+    // Chunks garbage collected without being released
+    public long leaks() {
+        return leaks.get();
+    }
+
+    public int idle() {
+        return idleCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ByteBufferPool{bufferSize=" + bufferSize
+                + ", allocated=" + allocated.get()
+                + ", idle=" + idleCount.get()
+                + ", outstanding=" + outstanding()
+                + ", leaks=" + leaks.get() + '}';
+    }
+
+    Cleaner.Cleanable track(Chunk chunk, AtomicBoolean released) {
+        return CLEANER.register(chunk, new LeakCheck(this, released));
+    }
+
+    void release(ByteBuffer buffer) {
+        released.incrementAndGet();
+        recycle(buffer);
+    }
+
+    private void recycle(ByteBuffer buffer) {
+        // Over maxIdle, the buffer is left to the garbage collector
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            idle.offerFirst(buffer);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+
+    // Must not reference the Chunk, or it would never be collected
+    private static final class LeakCheck implements Runnable {
+        final ByteBufferPool pool;
+        final AtomicBoolean released;
+
+        LeakCheck(ByteBufferPool pool, AtomicBoolean released) {
+            this.pool = pool;
+            this.released = released;
+        }
+
+        @Override
+        public void run() {
+            if (released.compareAndSet(false, true)) {
+                pool.leaks.incrementAndGet();
+                log.warn("A Chunk of " + pool + " was garbage collected without being released");
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package net.eherrera.reactor.blocking;
+
+import java.util.concurrent.CancellationException;
+
+// Passed to cooperative tasks, they should check it between blocking steps and stop when
+// the subscriber is gone (after a timeout, for example)
+public final class CancellationToken {
+    private volatile boolean cancelled;
+    // Set when the task saw the cancellation
+    volatile boolean observed;
+
+    CancellationToken() {
+    }
+
+    public boolean isCancelled() {
+        if (cancelled) {
+            observed = true;
+            return true;
+        }
+        return false;
+    }
+
+    public void throwIfCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("The subscriber cancelled the task");
+        }
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+}
@@ -0,0 +1,54 @@
+package net.eherrera.reactor.blocking;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// A buffer borrowed from a ByteBufferPool, call release() once done with it (more calls do
+// nothing). The buffer must not be used after that, it's handed out again.
+public final class Chunk {
+    private final ByteBuffer buffer;
+    private final ByteBufferPool pool;
+    private final AtomicBoolean released = new AtomicBoolean();
+    private final Cleaner.Cleanable cleanable;
+    private long offset;
+
+    Chunk(ByteBufferPool pool, ByteBuffer buffer) {
+        this.pool = pool;
+        this.buffer = buffer;
+        this.cleanable = pool.track(this, released);
+    }
+
+    public ByteBuffer buffer() {
+        if (released.get()) {
+            throw new IllegalStateException("Chunk already released");
+        }
+        return buffer;
+    }
+
+    // The position of the first byte in the file it was read from
+    public long offset() {
+        return offset;
+    }
+
+    void offset(long offset) {
+        this.offset = offset;
+    }
+
+    public boolean isReleased() {
+        return released.get();
+    }
+
+    public void release() {
+        if (released.compareAndSet(false, true)) {
+            pool.release(buffer);
+            // Nothing left to check
+            cleanable.clean();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Chunk(offset=" + offset + ", bytes=" + buffer.remaining() + (released.get() ? ", released)" : ")");
+    }
+}
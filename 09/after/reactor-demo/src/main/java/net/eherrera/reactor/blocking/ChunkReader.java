@@ -0,0 +1,121 @@
+package net.eherrera.reactor.blocking;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.Logger;
+import reactor.util.Loggers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+// Reads a file as a Flux of fixed-size chunks (the last one may be shorter) in direct buffers
+// from a ByteBufferPool, instead of building it as a String (Files.lines with joining).
+// Chunks are read on demand on the scheduler, so with a downstream that processes and releases
+// them as they come, a few buffers are reused for the whole file:
+//     ChunkReader reader = ChunkReader.create(ByteBufferPool.create(64 * 1024, 16));
+//     reader.read(path, buffer -> countLines(buffer))
+// With read(path), every Chunk must be released by the downstream; add
+// .doOnDiscard(Chunk.class, Chunk::release) at the end so the chunks dropped by operators
+// (filter, take, cancelled queues) are released too.
+public final class ChunkReader {
+    private static final Logger log = Loggers.getLogger(ChunkReader.class);
+
+    private final ByteBufferPool pool;
+    private final Scheduler scheduler;
+
+    private ChunkReader(ByteBufferPool pool, Scheduler scheduler) {
+        this.pool = pool;
+        this.scheduler = scheduler;
+    }
+
+    public static ChunkReader create(ByteBufferPool pool) {
+        return create(pool, Schedulers.boundedElastic());
+    }
+
+    public static ChunkReader create(ByteBufferPool pool, Scheduler scheduler) {
+        return new ChunkReader(pool, scheduler);
+    }
+
+    public Flux<Chunk> read(Path path) {
+        return chunks(path, null);
+    }
+
+    // Every chunk ends right after the last byte (0-255) for which isBoundary is true (a line
+    // or word separator), the next one starts there, so records are never split between two
+    // chunks. Only a record longer than a whole chunk is.
+    public Flux<Chunk> readAligned(Path path, IntPredicate isBoundary) {
+        return chunks(path, isBoundary);
+    }
+
+    private Flux<Chunk> chunks(Path path, IntPredicate isBoundary) {
+        return Flux.using(
+                        () -> FileChannel.open(path, StandardOpenOption.READ),
+                        channel -> Flux.<Chunk, long[]>generate(() -> new long[1], (position, sink) -> {
+                            Chunk chunk = pool.acquire();
+                            try {
+                                if (fill(channel, chunk, position, isBoundary)) {
+                                    sink.next(chunk);
+                                } else {
+                                    chunk.release();
+                                    sink.complete();
+                                }
+                            } catch (IOException e) {
+                                chunk.release();
+                                sink.error(e);
+                            }
+                            return position;
+                        }),
+                        ChunkReader::close)
+                .subscribeOn(scheduler);
+    }
+
+    // Applies mapper to every chunk and releases it right after, the buffer must not escape mapper
+    public <R> Flux<R> read(Path path, Function<? super ByteBuffer, ? extends R> mapper) {
+        return read(path).map(chunk -> {
+            try {
+                return mapper.apply(chunk.buffer());
+            } finally {
+                chunk.release();
+            }
+        });
+    }
+
+    // Fills the whole buffer unless the file ends first, false if there was nothing left
+    private static boolean fill(FileChannel channel, Chunk chunk, long[] position, IntPredicate isBoundary)
+            throws IOException {
+        ByteBuffer buffer = chunk.buffer();
+        long offset = position[0];
+        chunk.offset(offset);
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, offset + buffer.position());
+            if (n < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        if (isBoundary != null && buffer.limit() == buffer.capacity()) {
+            for (int i = buffer.limit() - 1; i >= 0; i--) {
+                if (isBoundary.test(buffer.get(i) & 0xff)) {
+                    buffer.limit(i + 1);
+                    break;
+                }
+            }
+        }
+        position[0] = offset + buffer.limit();
+        return buffer.hasRemaining();
+    }
+
+    private static void close(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Can't close the file channel", e);
+        }
+    }
+}
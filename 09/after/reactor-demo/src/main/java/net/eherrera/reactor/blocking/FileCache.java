@@ -0,0 +1,346 @@
+package net.eherrera.reactor.blocking;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.Logger;
+import reactor.util.Loggers;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Caches the contents of files read with blocking calls, so repeated reads of hot config or
+// reference files are memory reads:
+//     FileCache files = FileCache.create(16 * 1024 * 1024, Duration.ofMinutes(1));
+//     files.readString(path).map(...)
+// A cached file is returned right away (without a stat) for ttl after it was read or checked.
+// After that, the next read checks the modification time and size on the scheduler, and only
+// reads the file again if they changed. Concurrent reads of a file that is loading share the
+// same load. When watching, the directory of every cached file is registered with a
+// WatchService, and files are invalidated as soon as they change, without waiting for ttl.
+// The cache holds at most maxBytes of content, evicting the least recently read files first;
+// files bigger than that are read every time.
+// The arrays returned by read are shared by every caller, don't modify them.
+public final class FileCache implements Disposable {
+    private static final Logger log = Loggers.getLogger(FileCache.class);
+
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final Scheduler scheduler;
+    private final boolean watch;
+    // Guarded by this, in access order for the LRU eviction
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+    // Bumped on every invalidation, a load only caches what it read if nothing was invalidated meanwhile
+    private long generation;
+    private final ConcurrentMap<Path, Mono<byte[]>> loading = new ConcurrentHashMap<>();
+    // Guarded by this
+    private WatchService watchService;
+    private final Map<WatchKey, Path> watchedDirs = new HashMap<>();
+    private volatile boolean disposed;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private FileCache(long maxBytes, Duration ttl, Scheduler scheduler, boolean watch) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("maxBytes must be at least 1, was " + maxBytes);
+        }
+        if (ttl.isNegative()) {
+            throw new IllegalArgumentException("ttl can't be negative, was " + ttl);
+        }
+        this.maxBytes = maxBytes;
+        this.ttlNanos = ttl.toNanos();
+        this.scheduler = scheduler;
+        this.watch = watch;
+    }
+
+    public static FileCache create(long maxBytes, Duration ttl) {
+        return create(maxBytes, ttl, Schedulers.boundedElastic(), true);
+    }
+
+    public static FileCache create(long maxBytes, Duration ttl, Scheduler scheduler, boolean watch) {
+        return new FileCache(maxBytes, ttl, scheduler, watch);
+    }
+
+    public Mono<byte[]> read(Path path) {
+        return Mono.defer(() -> {
+            Path key = path.toAbsolutePath().normalize();
+            Entry entry;
+            synchronized (this) {
+                entry = entries.get(key);
+            }
+            if (entry != null && System.nanoTime() - entry.validatedAt < ttlNanos) {
+                hits.incrementAndGet();
+                return Mono.just(entry.bytes);
+            }
+            return loading.computeIfAbsent(key, k -> load(k, entry));
+        });
+    }
+
+    public Mono<String> readString(Path path) {
+        return readString(path, StandardCharsets.UTF_8);
+    }
+
+    public Mono<String> readString(Path path, Charset charset) {
+        return read(path).map(bytes -> new String(bytes, charset));
+    }
+
+    public void invalidate(Path path) {
+        Path key = path.toAbsolutePath().normalize();
+        synchronized (this) {
+            generation++;
+            Entry entry = entries.remove(key);
+            if (entry != null) {
+                cachedBytes -= entry.bytes.length;
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (this) {
+            generation++;
+            invalidations.addAndGet(entries.size());
+            entries.clear();
+            cachedBytes = 0;
+        }
+    }
+
+    // Stops watching the directories, the cached files stay until ttl
+    @Override
+    public void dispose() {
+        WatchService service;
+        synchronized (this) {
+            if (disposed) {
+                return;
+            }
+            disposed = true;
+            service = watchService;
+            watchedDirs.clear();
+        }
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException e) {
+                log.warn("Can't close the watch service", e);
+            }
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long cachedBytes() {
+        return cachedBytes;
+    }
+
+    // Reads served from memory without touching the file system
+    public long hits() {
+        return hits.get();
+    }
+
+    // Reads of the contents of a file
+    public long loads() {
+        return loads.get();
+    }
+
+    // Expired entries kept after checking that the file didn't change
+    public long revalidations() {
+        return revalidations.get();
+    }
+
+    // Entries removed because the file changed (or invalidate was called)
+    public long invalidations() {
+        return invalidations.get();
+    }
+
+    // Entries removed to stay under maxBytes
+    public long evictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+        synchronized (this) {
+            return "FileCache{files=" + entries.size()
+                    + ", bytes=" + cachedBytes + "/" + maxBytes
+                    + ", hits=" + hits.get()
+                    + ", loads=" + loads.get()
+                    + ", revalidations=" + revalidations.get()
+                    + ", invalidations=" + invalidations.get()
+                    + ", evictions=" + evictions.get() + '}';
+        }
+    }
+
+    private Mono<byte[]> load(Path key, Entry previous) {
+        return Mono.fromCallable(() -> {
+                    // Watching before reading, so a change while reading is an invalidation
+                    watch(key.getParent());
+                    long startGeneration;
+                    synchronized (this) {
+                        startGeneration = generation;
+                    }
+                    BasicFileAttributes before = Files.readAttributes(key, BasicFileAttributes.class);
+                    if (previous != null && previous.matches(before) && revalidate(key, previous, startGeneration)) {
+                        return previous.bytes;
+                    }
+                    loads.incrementAndGet();
+                    byte[] bytes = Files.readAllBytes(key);
+                    BasicFileAttributes after = Files.readAttributes(key, BasicFileAttributes.class);
+                    // If the file changed while reading it, the contents may be mixed, don't keep them
+                    if (after.lastModifiedTime().equals(before.lastModifiedTime()) && after.size() == bytes.length) {
+                        store(key, new Entry(bytes, after.lastModifiedTime()), startGeneration);
+                    }
+                    return bytes;
+                })
+                .subscribeOn(scheduler)
+                // Only this load can be in the map until it's removed, so there's no newer one to keep
+                .doFinally(signal -> loading.remove(key))
+                .cache();
+    }
+
+    private synchronized boolean revalidate(Path key, Entry previous, long startGeneration) {
+        if (generation != startGeneration || entries.get(key) != previous) {
+            return false;
+        }
+        previous.validatedAt = System.nanoTime();
+        revalidations.incrementAndGet();
+        return true;
+    }
+
+    private synchronized void store(Path key, Entry entry, long startGeneration) {
+        if (generation != startGeneration || entry.bytes.length > maxBytes) {
+            return;
+        }
+        Entry old = entries.put(key, entry);
+        if (old != null) {
+            cachedBytes -= old.bytes.length;
+        }
+        cachedBytes += entry.bytes.length;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (cachedBytes > maxBytes) {
+            Entry evicted = eldest.next();
+            eldest.remove();
+            cachedBytes -= evicted.bytes.length;
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void watch(Path dir) {
+        if (!watch || dir == null) {
+            return;
+        }
+        synchronized (this) {
+            if (disposed || watchedDirs.containsValue(dir)) {
+                return;
+            }
+            try {
+                if (watchService == null) {
+                    WatchService service = dir.getFileSystem().newWatchService();
+                    watchService = service;
+                    Thread watcher = new Thread(() -> watchLoop(service), "file-cache-watcher");
+                    watcher.setDaemon(true);
+                    watcher.start();
+                }
+                WatchKey watchKey = dir.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+                watchedDirs.put(watchKey, dir);
+            } catch (IOException e) {
+                // The files of this directory are still checked after ttl
+                log.warn("Can't watch " + dir + " for changes", e);
+            }
+        }
+    }
+
+    private void watchLoop(WatchService service) {
+        try {
+            while (true) {
+                WatchKey watchKey = service.take();
+                Path dir;
+                synchronized (this) {
+                    dir = watchedDirs.get(watchKey);
+                }
+                for (WatchEvent<?> event : watchKey.pollEvents()) {
+                    if (dir == null) {
+                        continue;
+                    }
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        invalidateDir(dir);
+                    } else {
+                        invalidate(dir.resolve((Path) event.context()));
+                    }
+                }
+                if (!watchKey.reset()) {
+                    // The directory is gone
+                    synchronized (this) {
+                        watchedDirs.remove(watchKey);
+                    }
+                    if (dir != null) {
+                        invalidateDir(dir);
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Disposed
+        }
+    }
+
+    // Events were lost, every file of the directory may have changed
+    private synchronized void invalidateDir(Path dir) {
+        generation++;
+        Iterator<Map.Entry<Path, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Path, Entry> e = it.next();
+            if (dir.equals(e.getKey().getParent())) {
+                it.remove();
+                cachedBytes -= e.getValue().bytes.length;
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    private static final class Entry {
+        final byte[] bytes;
+        final FileTime lastModified;
+        volatile long validatedAt = System.nanoTime();
+
+        Entry(byte[] bytes, FileTime lastModified) {
+            this.bytes = bytes;
+            this.lastModified = lastModified;
+        }
+
+        boolean matches(BasicFileAttributes attributes) {
+            return attributes.lastModifiedTime().equals(lastModified) && attributes.size() == bytes.length;
+        }
+    }
+}
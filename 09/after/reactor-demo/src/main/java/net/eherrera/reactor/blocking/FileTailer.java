@@ -0,0 +1,376 @@
+package net.eherrera.reactor.blocking;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.Logger;
+import reactor.util.Loggers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Streams the lines of a file as they are appended, like tail -F:
+//     FileTailer tailer = FileTailer.create(Duration.ofSeconds(1));
+//     tailer.tail(logFile).filter(line -> line.contains("ERROR"))...
+// Every subscription keeps its own position and reads only the bytes after it, with positional
+// FileChannel reads on the scheduler. Reads are triggered by WatchService events on the file's
+// directory, and every pollInterval in case events are missed (or watching is disabled).
+// Only as many lines as requested are emitted; while there's no demand, nothing is read.
+// When the file is replaced (rotated: a different file key at the same path), the rest of the
+// old file is emitted first, then the new file is read from its start. When it gets shorter
+// than the position (truncated), it's read again from its start. A file that doesn't exist yet
+// (or while rotating) is waited for.
+public final class FileTailer implements Disposable {
+    private static final Logger log = Loggers.getLogger(FileTailer.class);
+    private static final int READ_SIZE = 8192;
+
+    private final Duration pollInterval;
+    private final Scheduler scheduler;
+    private final boolean watch;
+    private final Charset charset;
+    private final Map<Path, Set<Tail>> tails = new ConcurrentHashMap<>();
+    // Guarded by this
+    private WatchService watchService;
+    private final Map<WatchKey, Path> watchedDirs = new HashMap<>();
+    private volatile boolean disposed;
+
+    private FileTailer(Duration pollInterval, Scheduler scheduler, boolean watch, Charset charset) {
+        if (pollInterval.isNegative() || pollInterval.isZero()) {
+            throw new IllegalArgumentException("pollInterval must be positive, was " + pollInterval);
+        }
+        this.pollInterval = pollInterval;
+        this.scheduler = scheduler;
+        this.watch = watch;
+        this.charset = charset;
+    }
+
+    public static FileTailer create(Duration pollInterval) {
+        return create(pollInterval, Schedulers.boundedElastic(), true, StandardCharsets.UTF_8);
+    }
+
+    public static FileTailer create(Duration pollInterval, Scheduler scheduler, boolean watch, Charset charset) {
+        return new FileTailer(pollInterval, scheduler, watch, charset);
+    }
+
+    // From the start of the file
+    public Flux<String> tail(Path file) {
+        return tail(file, 0);
+    }
+
+    // From the given byte offset, tail(file, Files.size(file)) only emits new lines
+    public Flux<String> tail(Path file, long offset) {
+        Path path = file.toAbsolutePath().normalize();
+        return Flux.create(sink -> new Tail(path, offset, sink).start());
+    }
+
+    // Stops watching, the subscriptions keep polling
+    @Override
+    public void dispose() {
+        WatchService service;
+        synchronized (this) {
+            if (disposed) {
+                return;
+            }
+            disposed = true;
+            service = watchService;
+            watchedDirs.clear();
+        }
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException e) {
+                log.warn("Can't close the watch service", e);
+            }
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    private void register(Tail tail) {
+        tails.computeIfAbsent(tail.path, p -> ConcurrentHashMap.newKeySet()).add(tail);
+        Path dir = tail.path.getParent();
+        if (!watch || dir == null) {
+            return;
+        }
+        synchronized (this) {
+            if (disposed || watchedDirs.containsValue(dir)) {
+                return;
+            }
+            try {
+                if (watchService == null) {
+                    WatchService service = dir.getFileSystem().newWatchService();
+                    watchService = service;
+                    Thread watcher = new Thread(() -> watchLoop(service), "file-tailer-watcher");
+                    watcher.setDaemon(true);
+                    watcher.start();
+                }
+                WatchKey watchKey = dir.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+                watchedDirs.put(watchKey, dir);
+            } catch (IOException e) {
+                // Polling still works
+                log.warn("Can't watch " + dir + " for changes", e);
+            }
+        }
+    }
+
+    private void unregister(Tail tail) {
+        tails.computeIfPresent(tail.path, (p, set) -> {
+            set.remove(tail);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private void watchLoop(WatchService service) {
+        try {
+            while (true) {
+                WatchKey watchKey = service.take();
+                Path dir;
+                synchronized (this) {
+                    dir = watchedDirs.get(watchKey);
+                }
+                for (WatchEvent<?> event : watchKey.pollEvents()) {
+                    if (dir == null) {
+                        continue;
+                    }
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        tails.forEach((path, set) -> {
+                            if (dir.equals(path.getParent())) {
+                                set.forEach(Tail::trigger);
+                            }
+                        });
+                    } else {
+                        Set<Tail> set = tails.get(dir.resolve((Path) event.context()));
+                        if (set != null) {
+                            set.forEach(Tail::trigger);
+                        }
+                    }
+                }
+                if (!watchKey.reset()) {
+                    synchronized (this) {
+                        watchedDirs.remove(watchKey);
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Disposed
+        }
+    }
+
+    // The state of one subscription, only used by the drain loop, which runs on one worker at a time
+    private final class Tail {
+        final Path path;
+        final FluxSink<String> sink;
+        final Scheduler.Worker worker = scheduler.createWorker();
+        final AtomicInteger wip = new AtomicInteger();
+        final ByteBuffer buffer = ByteBuffer.allocate(READ_SIZE);
+        final ArrayDeque<String> lines = new ArrayDeque<>();
+        FileChannel channel;
+        Object fileKey;
+        long position;
+        // The bytes of the last line while it has no line terminator yet
+        byte[] partial = new byte[256];
+        int partialLength;
+        volatile boolean cancelled;
+
+        Tail(Path path, long offset, FluxSink<String> sink) {
+            this.path = path;
+            this.position = offset;
+            this.sink = sink;
+        }
+
+        void start() {
+            register(this);
+            Disposable poll = worker.schedulePeriodically(this::drain,
+                    pollInterval.toNanos(), pollInterval.toNanos(), TimeUnit.NANOSECONDS);
+            sink.onRequest(n -> trigger());
+            sink.onDispose(() -> {
+                cancelled = true;
+                poll.dispose();
+                unregister(this);
+                trigger();
+            });
+        }
+
+        void trigger() {
+            if (wip.getAndIncrement() == 0) {
+                worker.schedule(this::drain);
+            }
+        }
+
+        // The periodic poll calls it directly, it's on the worker too
+        void drain() {
+            int missed = wip.incrementAndGet();
+            do {
+                drainOnce();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        void drainOnce() {
+            if (cancelled) {
+                close();
+                worker.dispose();
+                return;
+            }
+            try {
+                while (sink.requestedFromDownstream() > 0 && !cancelled) {
+                    String line = lines.poll();
+                    if (line != null) {
+                        sink.next(line);
+                    } else if (!read() && !switchFile()) {
+                        return;
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                sink.error(e);
+            }
+        }
+
+        // Reads the next bytes into lines, false at the end of the file
+        boolean read() throws IOException {
+            if (channel == null && !open()) {
+                return false;
+            }
+            buffer.clear();
+            int n = channel.read(buffer, position);
+            if (n <= 0) {
+                return false;
+            }
+            position += n;
+            split(buffer.array(), n);
+            return true;
+        }
+
+        // At the end of the current file, checks if the path now has a new or a shorter file
+        boolean switchFile() throws IOException {
+            if (channel == null) {
+                return false;
+            }
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                // Rotating, the new file isn't there yet
+                return false;
+            }
+            Object key = attributes.fileKey();
+            if (key != null && !key.equals(fileKey)) {
+                // Rotated: the old file was read to its end, a last line without terminator is still a line
+                flushPartial();
+                close();
+                position = 0;
+                return open();
+            }
+            if (attributes.size() < position) {
+                partialLength = 0;
+                position = 0;
+                return true;
+            }
+            return false;
+        }
+
+        boolean open() throws IOException {
+            try {
+                channel = FileChannel.open(path, StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                return false;
+            }
+            fileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+            if (position > channel.size()) {
+                position = 0;
+            }
+            return true;
+        }
+
+        void split(byte[] bytes, int length) {
+            int start = 0;
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] == '\n') {
+                    int end = i > start && bytes[i - 1] == '\r' ? i - 1 : i;
+                    if (partialLength > 0) {
+                        appendPartial(bytes, start, end - start);
+                        emitPartial();
+                    } else {
+                        lines.add(new String(bytes, start, end - start, charset));
+                    }
+                    start = i + 1;
+                }
+            }
+            if (start < length) {
+                appendPartial(bytes, start, length - start);
+            }
+        }
+
+        void appendPartial(byte[] bytes, int offset, int length) {
+            if (partialLength + length > partial.length) {
+                partial = Arrays.copyOf(partial, Math.max(partial.length * 2, partialLength + length));
+            }
+            System.arraycopy(bytes, offset, partial, partialLength, length);
+            partialLength += length;
+        }
+
+        void emitPartial() {
+            int length = partialLength;
+            // A \r\n split between two reads
+            if (length > 0 && partial[length - 1] == '\r') {
+                length--;
+            }
+            lines.add(new String(partial, 0, length, charset));
+            partialLength = 0;
+        }
+
+        void flushPartial() {
+            if (partialLength > 0) {
+                emitPartial();
+            }
+        }
+
+        void close() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    log.warn("Can't close " + path, e);
+                }
+                channel = null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Tail(" + path + ", position=" + position + ", fileKey=" + Objects.toString(fileKey) + ")";
+        }
+    }
+}
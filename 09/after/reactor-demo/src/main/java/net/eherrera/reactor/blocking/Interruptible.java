@@ -0,0 +1,163 @@
+package net.eherrera.reactor.blocking;
+
+import net.eherrera.reactor.function.ThrowingFunction;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Like Mono.fromCallable(...).subscribeOn(scheduler), but when the subscriber cancels
+// (a timeout, for example) the task doesn't keep its thread busy until it returns:
+// - fromCallable interrupts the thread running it
+// - fromCancellable cancels the CancellationToken it receives, for code that can't be interrupted
+// A task cancelled before it starts never runs.
+// The counters tell how many cancelled tasks noticed the cancellation and stopped early
+// (interrupted) and how many ignored it and ran to the end anyway (abandoned).
+public final class Interruptible {
+    private static final int NEW = 0;
+    private static final int RUNNING = 1;
+    private static final int CANCELLING = 2;
+    private static final int CANCELLED = 3;
+    private static final int DONE = 4;
+
+    private final Scheduler scheduler;
+    private final AtomicLong running = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong cancelledBeforeStart = new AtomicLong();
+    private final AtomicLong interrupted = new AtomicLong();
+    private final AtomicLong abandoned = new AtomicLong();
+
+    private Interruptible(Scheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    public static Interruptible create(Scheduler scheduler) {
+        return new Interruptible(scheduler);
+    }
+
+    public <T> Mono<T> fromCallable(Callable<? extends T> callable) {
+        return Mono.create(sink -> schedule(new Task<>(sink, token -> callable.call(), true)));
+    }
+
+    public <T> Mono<T> fromCancellable(ThrowingFunction<CancellationToken, ? extends T> task) {
+        return Mono.create(sink -> schedule(new Task<>(sink, task, false)));
+    }
+
+    // Tasks running right now
+    public long running() {
+        return running.get();
+    }
+
+    public long completed() {
+        return completed.get();
+    }
+
+    public long cancelledBeforeStart() {
+        return cancelledBeforeStart.get();
+    }
+
+    // Cancelled while running, and noticed it: it threw (InterruptedException, for example),
+    // cleared the interrupt or saw the token cancelled
+    public long interrupted() {
+        return interrupted.get();
+    }
+
+    // Cancelled while running, but never noticed it, so the thread was busy until the end
+    public long abandoned() {
+        return abandoned.get();
+    }
+
+    @Override
+    public String toString() {
+        return "Interruptible{running=" + running.get()
+                + ", completed=" + completed.get()
+                + ", cancelledBeforeStart=" + cancelledBeforeStart.get()
+                + ", interrupted=" + interrupted.get()
+                + ", abandoned=" + abandoned.get() + '}';
+    }
+
+    private <T> void schedule(Task<T> task) {
+        task.sink.onCancel(task::cancel);
+        try {
+            task.scheduled = scheduler.schedule(task);
+        } catch (RuntimeException e) {
+            task.sink.error(e);
+        }
+    }
+
+    private final class Task<T> implements Runnable {
+        final MonoSink<T> sink;
+        final ThrowingFunction<CancellationToken, ? extends T> body;
+        final boolean interrupt;
+        final CancellationToken token = new CancellationToken();
+        final AtomicInteger state = new AtomicInteger(NEW);
+        volatile Thread runner;
+        volatile Disposable scheduled;
+
+        Task(MonoSink<T> sink, ThrowingFunction<CancellationToken, ? extends T> body, boolean interrupt) {
+            this.sink = sink;
+            this.body = body;
+            this.interrupt = interrupt;
+        }
+
+        @Override
+        public void run() {
+            runner = Thread.currentThread();
+            if (!state.compareAndSet(NEW, RUNNING)) {
+                return;
+            }
+            running.incrementAndGet();
+            T result = null;
+            Throwable error = null;
+            try {
+                result = body.apply(token);
+            } catch (Throwable e) {
+                error = e;
+            }
+            running.decrementAndGet();
+            if (state.compareAndSet(RUNNING, DONE)) {
+                completed.incrementAndGet();
+                if (error != null) {
+                    sink.error(error);
+                } else {
+                    sink.success(result);
+                }
+                return;
+            }
+            // Wait for cancel() to deliver its interrupt
+            while (state.get() == CANCELLING) {
+                Thread.onSpinWait();
+            }
+            // Clearing the interrupt also keeps it from leaking into the next task of this thread
+            boolean pendingInterrupt = interrupt && Thread.interrupted();
+            boolean observed = error != null || (interrupt ? !pendingInterrupt : token.observed);
+            if (observed) {
+                interrupted.incrementAndGet();
+            } else {
+                abandoned.incrementAndGet();
+            }
+        }
+
+        void cancel() {
+            if (state.compareAndSet(NEW, CANCELLED)) {
+                cancelledBeforeStart.incrementAndGet();
+                Disposable d = scheduled;
+                if (d != null) {
+                    d.dispose();
+                }
+                return;
+            }
+            if (state.compareAndSet(RUNNING, CANCELLING)) {
+                token.cancel();
+                if (interrupt) {
+                    runner.interrupt();
+                }
+                state.set(CANCELLED);
+            }
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package net.eherrera.reactor.blocking;
+
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// A replacement for Flux.toStream and Flux.toIterable to feed Stream-based code at high rates:
+//     StreamBridge bridge = StreamBridge.create(256, 1024, 256);
+//     long total = flux.as(bridge::toStream).mapToLong(...).sum();
+// toStream signals the consuming thread with a lock and a condition on every element. Here the
+// producer only wakes the consumer up when it's parked (after spinning for a while), and the
+// consumer takes the buffered elements in array batches of up to batchSize.
+// Up to highWatermark elements are requested ahead; once the buffered ones fall to
+// lowWatermark, the consumed ones are requested again.
+// The Flux is subscribed when the Stream (or the Iterator) is first used. With the size
+// overloads, the Spliterator reports it (SIZED), so the Stream can pre-size arrays and split
+// evenly, trySplit hands batches to parallel streams. Closing the Stream cancels the Flux.
+public final class StreamBridge {
+    private static final int SPINS = 256;
+    private static final VarHandle WAITING;
+
+    static {
+        try {
+            WAITING = MethodHandles.lookup().findVarHandle(BridgeSpliterator.class, "waiting", Thread.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int batchSize;
+    private final int highWatermark;
+    private final int lowWatermark;
+
+    private StreamBridge(int batchSize, int highWatermark, int lowWatermark) {
+        if (batchSize < 1 || highWatermark < batchSize || lowWatermark < 0 || lowWatermark >= highWatermark) {
+            throw new IllegalArgumentException("Expected 1 <= batchSize <= highWatermark and "
+                    + "0 <= lowWatermark < highWatermark, was " + batchSize + ", " + highWatermark + ", " + lowWatermark);
+        }
+        this.batchSize = batchSize;
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+    }
+
+    public static StreamBridge create() {
+        return create(Queues.SMALL_BUFFER_SIZE, Queues.SMALL_BUFFER_SIZE * 4, Queues.SMALL_BUFFER_SIZE);
+    }
+
+    public static StreamBridge create(int batchSize, int highWatermark, int lowWatermark) {
+        return new StreamBridge(batchSize, highWatermark, lowWatermark);
+    }
+
+    public <T> Stream<T> toStream(Flux<T> flux) {
+        return toStream(flux, -1);
+    }
+
+    // knownSize is the number of elements the Flux emits
+    public <T> Stream<T> toStream(Flux<T> flux, long knownSize) {
+        BridgeSpliterator<T> spliterator = new BridgeSpliterator<>(flux, knownSize);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::cancel);
+    }
+
+    public <T> Iterable<T> toIterable(Flux<T> flux) {
+        return toIterable(flux, -1);
+    }
+
+    public <T> Iterable<T> toIterable(Flux<T> flux, long knownSize) {
+        return () -> iterator(flux, knownSize);
+    }
+
+    private <T> Iterator<T> iterator(Flux<T> flux, long knownSize) {
+        return Spliterators.iterator(new BridgeSpliterator<>(flux, knownSize));
+    }
+
+    private final class BridgeSpliterator<T> implements Spliterator<T>, CoreSubscriber<T> {
+        final Flux<T> source;
+        final int characteristics;
+        final Queue<T> queue = Queues.<T>get(highWatermark).get();
+        final int limit = highWatermark - lowWatermark;
+        // Only used by the consuming thread
+        final Object[] batch = new Object[batchSize];
+        int batchIndex;
+        int batchCount;
+        long remaining;
+        int consumedSinceRequest;
+        boolean subscribed;
+        // Written by the producer
+        volatile Subscription subscription;
+        volatile boolean done;
+        Throwable error;
+        volatile boolean cancelled;
+        // The consumer when it's parked
+        volatile Thread waiting;
+
+        BridgeSpliterator(Flux<T> source, long knownSize) {
+            this.source = source;
+            this.remaining = knownSize < 0 ? Long.MAX_VALUE : knownSize;
+            this.characteristics = knownSize < 0
+                    ? ORDERED | NONNULL
+                    : ORDERED | NONNULL | SIZED | SUBSIZED;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (Operators.validate(subscription, s)) {
+                subscription = s;
+                if (cancelled) {
+                    s.cancel();
+                } else {
+                    s.request(highWatermark);
+                }
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (!queue.offer(t)) {
+                subscription.cancel();
+                onError(Exceptions.failWithOverflow(Exceptions.BACKPRESSURE_ERROR_QUEUE_FULL));
+                return;
+            }
+            signalConsumer();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+            done = true;
+            signalConsumer();
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            signalConsumer();
+        }
+
+        // The full fence pairs with the volatile write of waiting: either the producer sees the
+        // consumer parked, or the consumer sees the element before parking. Only the first
+        // signal after it parks unparks it.
+        void signalConsumer() {
+            VarHandle.fullFence();
+            if (waiting != null) {
+                Thread consumer = (Thread) WAITING.getAndSet(this, null);
+                if (consumer != null) {
+                    LockSupport.unpark(consumer);
+                }
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            Subscription s = subscription;
+            if (s != null) {
+                s.cancel();
+            }
+            queue.clear();
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (batchIndex == batchCount && !nextBatch()) {
+                return false;
+            }
+            action.accept(take());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            while (batchIndex < batchCount || nextBatch()) {
+                for (int i = batchIndex, n = batchCount; i < n; i++) {
+                    batchIndex = i + 1;
+                    action.accept(take(i));
+                }
+            }
+        }
+
+        // Gives a batch to another thread of a parallel stream
+        @Override
+        public Spliterator<T> trySplit() {
+            if (batchIndex == batchCount && !nextBatch()) {
+                return null;
+            }
+            Object[] prefix = Arrays.copyOfRange(batch, batchIndex, batchCount);
+            Arrays.fill(batch, batchIndex, batchCount, null);
+            batchIndex = batchCount;
+            return Spliterators.spliterator(prefix, characteristics);
+        }
+
+        @Override
+        public long estimateSize() {
+            return remaining == Long.MAX_VALUE ? Long.MAX_VALUE : remaining + batchCount - batchIndex;
+        }
+
+        @Override
+        public int characteristics() {
+            return characteristics;
+        }
+
+        T take() {
+            return take(batchIndex++);
+        }
+
+        @SuppressWarnings("unchecked")
+        T take(int index) {
+            T t = (T) batch[index];
+            batch[index] = null;
+            return t;
+        }
+
+        // Moves the buffered elements to the batch, waiting for them if needed
+        boolean nextBatch() {
+            if (!subscribed) {
+                subscribed = true;
+                source.subscribe(this);
+            }
+            int n;
+            while ((n = drain()) == 0) {
+                if (done && queue.isEmpty()) {
+                    Throwable e = error;
+                    if (e != null) {
+                        throw Exceptions.propagate(e);
+                    }
+                    return false;
+                }
+                await();
+            }
+            batchIndex = 0;
+            batchCount = n;
+            if (remaining != Long.MAX_VALUE) {
+                remaining -= n;
+            }
+            consumedSinceRequest += n;
+            if (consumedSinceRequest >= limit) {
+                subscription.request(consumedSinceRequest);
+                consumedSinceRequest = 0;
+            }
+            return true;
+        }
+
+        int drain() {
+            int n = 0;
+            T t;
+            while (n < batch.length && (t = queue.poll()) != null) {
+                batch[n++] = t;
+            }
+            return n;
+        }
+
+        void await() {
+            for (int i = 0; i < SPINS; i++) {
+                if (done || !queue.isEmpty()) {
+                    return;
+                }
+                Thread.onSpinWait();
+            }
+            if (Schedulers.isInNonBlockingThread()) {
+                throw new IllegalStateException("StreamBridge is blocking, which is not supported in thread "
+                        + Thread.currentThread().getName());
+            }
+            waiting = Thread.currentThread();
+            if (!done && queue.isEmpty()) {
+                LockSupport.park(this);
+            }
+            waiting = null;
+            if (Thread.currentThread().isInterrupted()) {
+                cancel();
+                throw Exceptions.propagate(new InterruptedException());
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package net.eherrera.reactor.context;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+// An opt-in replacement for transformDeferredContextual that assembles the sub-pipeline once per
+// distinct combination of values of the given Context keys, instead of once per subscription.
+// Every subscription with values already seen gets the cached pipeline, a map lookup.
+// The transformer only sees the given keys in its ContextView, so it can't depend on anything
+// else of the Context by mistake. It's meant for keys with a handful of distinct values (tenant,
+// multiplier, ...): once a pipeline has maxEntries combinations cached, the new ones are assembled
+// per subscription as usual.
+public final class AssemblyCache {
+    private static final Object ABSENT = new Object();
+
+    private final Object[] keys;
+    private final int maxEntries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong uncached = new AtomicLong();
+
+    private AssemblyCache(int maxEntries, Object[] keys) {
+        if (keys.length == 0) {
+            throw new IllegalArgumentException("At least one key is needed");
+        }
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1, was " + maxEntries);
+        }
+        this.keys = keys.clone();
+        this.maxEntries = maxEntries;
+    }
+
+    public static AssemblyCache keyedBy(Object... keys) {
+        return create(64, keys);
+    }
+
+    public static AssemblyCache create(int maxEntries, Object... keys) {
+        return new AssemblyCache(maxEntries, keys);
+    }
+
+    // Use with Flux.transform
+    public <T, V> Function<Flux<T>, Flux<V>> transformDeferredContextual(
+            BiFunction<? super Flux<T>, ? super ContextView, ? extends Publisher<V>> transformer) {
+        return flux -> {
+            // One cache per assembled pipeline, the cached sub-pipelines are built on this flux
+            ConcurrentMap<Object, Flux<V>> cache = new ConcurrentHashMap<>();
+            return Flux.deferContextual(ctx -> lookup(cache, ctx,
+                    view -> Flux.from(transformer.apply(flux, view))));
+        };
+    }
+
+    // Use with Mono.transform
+    public <T, V> Function<Mono<T>, Mono<V>> transformDeferredContextualMono(
+            BiFunction<? super Mono<T>, ? super ContextView, ? extends Publisher<V>> transformer) {
+        return mono -> {
+            ConcurrentMap<Object, Mono<V>> cache = new ConcurrentHashMap<>();
+            return Mono.deferContextual(ctx -> lookup(cache, ctx,
+                    view -> Mono.from(transformer.apply(mono, view))));
+        };
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    // Subscriptions assembled without caching, because the cache was full
+    public long uncached() {
+        return uncached.get();
+    }
+
+    @Override
+    public String toString() {
+        return "AssemblyCache{keys=" + Arrays.toString(keys)
+                + ", hits=" + hits.get()
+                + ", misses=" + misses.get()
+                + ", uncached=" + uncached.get() + '}';
+    }
+
+    private <P> P lookup(ConcurrentMap<Object, P> cache, ContextView ctx, Function<ContextView, P> assembler) {
+        Object cacheKey = cacheKey(ctx);
+        P pipeline = cache.get(cacheKey);
+        if (pipeline != null) {
+            hits.incrementAndGet();
+            return pipeline;
+        }
+        if (cache.size() >= maxEntries) {
+            uncached.incrementAndGet();
+            return assembler.apply(view(ctx));
+        }
+        misses.incrementAndGet();
+        return cache.computeIfAbsent(cacheKey, k -> assembler.apply(view(ctx)));
+    }
+
+    // The value itself for one key, so the lookup doesn't allocate
+    private Object cacheKey(ContextView ctx) {
+        if (keys.length == 1) {
+            return valueOf(ctx, keys[0]);
+        }
+        Object[] values = new Object[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = valueOf(ctx, keys[i]);
+        }
+        return Arrays.asList(values);
+    }
+
+    private static Object valueOf(ContextView ctx, Object key) {
+        Object value = key instanceof ContextKey
+                ? ((ContextKey<?>) key).getOrDefault(ctx, null)
+                : ctx.getOrDefault(key, null);
+        return value == null ? ABSENT : value;
+    }
+
+    private ContextView view(ContextView ctx) {
+        Context view = Context.empty();
+        for (Object key : keys) {
+            Object value = valueOf(ctx, key);
+            if (value != ABSENT) {
+                view = view.put(key, value);
+            }
+        }
+        return view;
+    }
+}
@@ -0,0 +1,84 @@
+package net.eherrera.reactor.context;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+// A typed Context key. Every key gets an index when it's created, and the values are stored
+// in an array at that index, so reading one is an array access instead of a linear search or
+// a hash lookup (see IndexedContext).
+// Keys are compared by identity and are registered forever, so they are meant to be constants:
+//     static final ContextKey<String> USER = ContextKey.of("user");
+//     flux.contextWrite(USER.with("alice"))
+//     flux.transformDeferredContextual((f, ctx) -> f.map(s -> USER.get(ctx) + s))
+public class ContextKey<T> {
+    // The key of every index, so IndexedContext doesn't need to store them
+    private static final List<ContextKey<?>> REGISTRY = new CopyOnWriteArrayList<>();
+
+    private final String name;
+    final int index;
+
+    ContextKey(String name) {
+        this.name = Objects.requireNonNull(name, "name");
+        synchronized (REGISTRY) {
+            this.index = REGISTRY.size();
+            REGISTRY.add(this);
+        }
+    }
+
+    static ContextKey<?> forIndex(int index) {
+        return REGISTRY.get(index);
+    }
+
+    public static <T> ContextKey<T> of(String name) {
+        return new ContextKey<>(name);
+    }
+
+    public static LongContextKey ofLong(String name) {
+        return new LongContextKey(name);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public T get(ContextView ctx) {
+        T value = getOrDefault(ctx, null);
+        if (value == null) {
+            throw new NoSuchElementException("Context does not contain key: " + name);
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T getOrDefault(ContextView ctx, T defaultValue) {
+        if (ctx instanceof IndexedContext) {
+            Object value = ((IndexedContext) ctx).getIndexed(this);
+            return value == null ? defaultValue : (T) value;
+        }
+        return ctx.getOrDefault(this, defaultValue);
+    }
+
+    public boolean isPresent(ContextView ctx) {
+        return ctx.hasKey(this);
+    }
+
+    public Context put(Context ctx, T value) {
+        return IndexedContext.from(ctx).put(this, value);
+    }
+
+    // Use with contextWrite
+    public Function<Context, Context> with(T value) {
+        return ctx -> put(ctx, value);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
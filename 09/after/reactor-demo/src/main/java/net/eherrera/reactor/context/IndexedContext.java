@@ -0,0 +1,197 @@
+package net.eherrera.reactor.context;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Context with the values of ContextKeys in arrays indexed by ContextKey.index; any other key
+// goes to a regular Context. It's immutable like every Context: put copies the arrays, which
+// only have as many slots as the highest index used, so it's cheaper than copying a map.
+// The values of LongContextKeys are kept unboxed in longs, with LONG as the marker in values.
+final class IndexedContext implements Context {
+    private static final Object LONG = new Object();
+    private static final Object[] NO_VALUES = new Object[0];
+    private static final long[] NO_LONGS = new long[0];
+
+    private final Object[] values;
+    private final long[] longs;
+    private final int count;
+    private final Context others;
+
+    private IndexedContext(Object[] values, long[] longs, int count, Context others) {
+        this.values = values;
+        this.longs = longs;
+        this.count = count;
+        this.others = others;
+    }
+
+    static IndexedContext from(ContextView ctx) {
+        if (ctx instanceof IndexedContext) {
+            return (IndexedContext) ctx;
+        }
+        IndexedContext indexed = new IndexedContext(NO_VALUES, NO_LONGS, 0, Context.empty());
+        // Moves the ContextKeys written with Context.of or put on a regular Context to the arrays
+        return indexed.putAll(ctx);
+    }
+
+    Object getIndexed(ContextKey<?> key) {
+        if (key.index >= values.length) {
+            return null;
+        }
+        Object value = values[key.index];
+        return value == LONG ? longs[key.index] : value;
+    }
+
+    long getLong(LongContextKey key, long defaultValue) {
+        int index = key.index;
+        return index < values.length && values[index] == LONG ? longs[index] : defaultValue;
+    }
+
+    IndexedContext putLong(LongContextKey key, long value) {
+        int index = key.index;
+        int length = Math.max(values.length, index + 1);
+        Object[] newValues = Arrays.copyOf(values, length);
+        long[] newLongs = Arrays.copyOf(longs, length);
+        int newCount = index < values.length && values[index] != null ? count : count + 1;
+        newValues[index] = LONG;
+        newLongs[index] = value;
+        return new IndexedContext(newValues, newLongs, newCount, others);
+    }
+
+    private IndexedContext putIndexed(ContextKey<?> key, Object value) {
+        Objects.requireNonNull(value, "value");
+        if (key instanceof LongContextKey) {
+            return putLong((LongContextKey) key, (Long) value);
+        }
+        int index = key.index;
+        Object[] newValues = Arrays.copyOf(values, Math.max(values.length, index + 1));
+        int newCount = index < values.length && values[index] != null ? count : count + 1;
+        newValues[index] = value;
+        // longs only needs to cover the LongContextKeys, it can be shorter than values
+        return new IndexedContext(newValues, longs, newCount, others);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key) {
+        Object value = key instanceof ContextKey ? getIndexed((ContextKey<?>) key) : others.getOrDefault(key, null);
+        if (value == null) {
+            throw new NoSuchElementException("Context does not contain key: " + key);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getOrDefault(Object key, T defaultValue) {
+        if (key instanceof ContextKey) {
+            Object value = getIndexed((ContextKey<?>) key);
+            return value == null ? defaultValue : (T) value;
+        }
+        return others.getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public boolean hasKey(Object key) {
+        if (key instanceof ContextKey) {
+            int index = ((ContextKey<?>) key).index;
+            return index < values.length && values[index] != null;
+        }
+        return others.hasKey(key);
+    }
+
+    @Override
+    public int size() {
+        return count + others.size();
+    }
+
+    @Override
+    public Stream<Map.Entry<Object, Object>> stream() {
+        return Stream.concat(
+                IntStream.range(0, values.length)
+                        .filter(i -> values[i] != null)
+                        .mapToObj(i -> new AbstractMap.SimpleImmutableEntry<>(ContextKey.forIndex(i), valueAt(i))),
+                others.stream());
+    }
+
+    @Override
+    public IndexedContext put(Object key, Object value) {
+        if (key instanceof ContextKey) {
+            return putIndexed((ContextKey<?>) key, value);
+        }
+        return new IndexedContext(values, longs, count, others.put(key, value));
+    }
+
+    @Override
+    public IndexedContext delete(Object key) {
+        if (key instanceof ContextKey) {
+            int index = ((ContextKey<?>) key).index;
+            if (index >= values.length || values[index] == null) {
+                return this;
+            }
+            Object[] newValues = values.clone();
+            newValues[index] = null;
+            return new IndexedContext(newValues, longs, count - 1, others);
+        }
+        return new IndexedContext(values, longs, count, others.delete(key));
+    }
+
+    @Override
+    public IndexedContext putAll(ContextView other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (other instanceof IndexedContext) {
+            return merge((IndexedContext) other);
+        }
+        IndexedContext[] result = {this};
+        other.forEach((key, value) -> result[0] = result[0].put(key, value));
+        return result[0];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("IndexedContext{");
+        stream().forEach(e -> {
+            if (sb.length() > "IndexedContext{".length()) {
+                sb.append(", ");
+            }
+            sb.append(e.getKey()).append('=').append(e.getValue());
+        });
+        return sb.append('}').toString();
+    }
+
+    // The values of other win
+    private IndexedContext merge(IndexedContext other) {
+        int length = Math.max(values.length, other.values.length);
+        Object[] newValues = Arrays.copyOf(values, length);
+        long[] newLongs = Arrays.copyOf(longs, Math.max(longs.length, other.longs.length));
+        int newCount = count;
+        for (int i = 0; i < other.values.length; i++) {
+            Object value = other.values[i];
+            if (value == null) {
+                continue;
+            }
+            if (newValues[i] == null) {
+                newCount++;
+            }
+            newValues[i] = value;
+            if (value == LONG) {
+                newLongs[i] = other.longs[i];
+            }
+        }
+        return new IndexedContext(newValues, newLongs, newCount, others.putAll((ContextView) other.others));
+    }
+
+    private Object valueAt(int index) {
+        Object value = values[index];
+        return value == LONG ? longs[index] : value;
+    }
+}
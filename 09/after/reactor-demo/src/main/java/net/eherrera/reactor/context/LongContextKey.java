@@ -0,0 +1,30 @@
+package net.eherrera.reactor.context;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.function.Function;
+
+// A ContextKey for long values, stored in a long[] so reading it with getLong doesn't box
+public final class LongContextKey extends ContextKey<Long> {
+    LongContextKey(String name) {
+        super(name);
+    }
+
+    public long getLong(ContextView ctx, long defaultValue) {
+        if (ctx instanceof IndexedContext) {
+            return ((IndexedContext) ctx).getLong(this, defaultValue);
+        }
+        Long value = ctx.getOrDefault(this, null);
+        return value == null ? defaultValue : value;
+    }
+
+    public Context putLong(Context ctx, long value) {
+        return IndexedContext.from(ctx).putLong(this, value);
+    }
+
+    // Use with contextWrite
+    public Function<Context, Context> withLong(long value) {
+        return ctx -> putLong(ctx, value);
+    }
+}
@@ -0,0 +1,238 @@
+package net.eherrera.reactor.context;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Copies selected Context keys into ThreadLocals (or MDC, through a getter and a setter) around
+// every signal, so logging and tracing code that reads ThreadLocals works after publishOn or subscribeOn:
+//     ThreadLocalPropagation propagation = ThreadLocalPropagation.create()
+//             .propagate("traceId", TRACE_ID)
+//             .propagate("user", () -> MDC.get("user"), user -> MDC.put("user", user), () -> MDC.remove("user"));
+//     flux.publishOn(scheduler).transform(propagation.restore()).doOnNext(...)
+// The values are read from the Context once per subscription, and a key is only set when the
+// thread doesn't already hold its value (compared with the live value, so writes by other code
+// are seen). On the thread that subscribes, the values are scoped like context-propagation's:
+// what it had is captured and put back after each signal, so the caller keeps its own values; a
+// synchronous source emits inside onSubscribe, so the whole sequence shares one scope. On the
+// other threads (the publishOn worker) the values stay set between signals, so consecutive
+// signals only read them, and what the thread had is put back after the terminal signal (on the
+// last worker, if the signals moved between several).
+public final class ThreadLocalPropagation {
+    private final Object[] keys;
+    private final Accessor[] accessors;
+
+    private ThreadLocalPropagation(Object[] keys, Accessor[] accessors) {
+        this.keys = keys;
+        this.accessors = accessors;
+    }
+
+    public static ThreadLocalPropagation create() {
+        return new ThreadLocalPropagation(new Object[0], new Accessor[0]);
+    }
+
+    public <V> ThreadLocalPropagation propagate(Object key, ThreadLocal<V> threadLocal) {
+        return propagate(key, threadLocal::get, threadLocal::set, threadLocal::remove);
+    }
+
+    // getter returns null when the value isn't set, the previous value is put back with setter or reset
+    @SuppressWarnings("unchecked")
+    public <V> ThreadLocalPropagation propagate(Object key, Supplier<V> getter, Consumer<V> setter, Runnable reset) {
+        Object[] newKeys = Arrays.copyOf(keys, keys.length + 1);
+        Accessor[] newAccessors = Arrays.copyOf(accessors, accessors.length + 1);
+        newKeys[keys.length] = key;
+        newAccessors[accessors.length] = new Accessor((Supplier<Object>) getter, (Consumer<Object>) setter, reset);
+        return new ThreadLocalPropagation(newKeys, newAccessors);
+    }
+
+    // Use with Flux.transform, after publishOn (or the operator that changes the thread)
+    public <T> Function<Flux<T>, Flux<T>> restore() {
+        return flux -> Flux.from(this.<T>lift().apply(flux));
+    }
+
+    // Use with Mono.transform, after publishOn (or the operator that changes the thread)
+    public <T> Function<Mono<T>, Mono<T>> restoreMono() {
+        return mono -> Mono.from(this.<T>lift().apply(mono));
+    }
+
+    // Resets the ThreadLocals on the current thread
+    public void clear() {
+        for (Accessor accessor : accessors) {
+            accessor.reset.run();
+        }
+    }
+
+    private <T> Function<? super Publisher<T>, ? extends Publisher<T>> lift() {
+        return Operators.<T, T>lift((scannable, actual) -> new RestoringSubscriber<>(actual));
+    }
+
+    private Object[] snapshot(ContextView ctx) {
+        Object[] values = new Object[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            Object key = keys[i];
+            values[i] = key instanceof ContextKey
+                    ? ((ContextKey<?>) key).getOrDefault(ctx, null)
+                    : ctx.getOrDefault(key, null);
+        }
+        return values;
+    }
+
+    // Whether the thread already holds the values, the common case: nothing to set or put back
+    private boolean isLive(Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (accessors[i].getter.get() != values[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Sets the values that differ from the live ones, returns what the thread had before
+    // or null when it already had all of them
+    private Object[] enter(Object[] values) {
+        Object[] previous = null;
+        for (int i = 0; i < values.length; i++) {
+            Accessor accessor = accessors[i];
+            Object current = accessor.getter.get();
+            if (current == values[i]) {
+                continue;
+            }
+            if (previous == null) {
+                previous = values.clone();
+            }
+            previous[i] = current;
+            accessor.set(values[i]);
+        }
+        return previous;
+    }
+
+    private void exit(Object[] values, Object[] previous) {
+        for (int i = 0; i < values.length; i++) {
+            if (previous[i] != values[i]) {
+                accessors[i].set(previous[i]);
+            }
+        }
+    }
+
+    private static final class Accessor {
+        final Supplier<Object> getter;
+        final Consumer<Object> setter;
+        final Runnable reset;
+
+        Accessor(Supplier<Object> getter, Consumer<Object> setter, Runnable reset) {
+            this.getter = getter;
+            this.setter = setter;
+            this.reset = reset;
+        }
+
+        void set(Object value) {
+            if (value == null) {
+                reset.run();
+            } else {
+                setter.accept(value);
+            }
+        }
+    }
+
+    private final class RestoringSubscriber<T> implements CoreSubscriber<T> {
+        final CoreSubscriber<? super T> actual;
+        final Object[] values;
+        // Signals are serialized, these are only touched by the thread delivering them
+        Thread subscriber;
+        Thread worker;
+        Object[] workerPrevious;
+
+        RestoringSubscriber(CoreSubscriber<? super T> actual) {
+            this.actual = actual;
+            this.values = snapshot(actual.currentContext());
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual.currentContext();
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscriber = Thread.currentThread();
+            Object[] previous = enter(values);
+            try {
+                actual.onSubscribe(s);
+            } finally {
+                if (previous != null) {
+                    exit(values, previous);
+                }
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (isLive(values)) {
+                actual.onNext(t);
+                return;
+            }
+            Object[] previous = enterSignal();
+            try {
+                actual.onNext(t);
+            } finally {
+                if (previous != null) {
+                    exit(values, previous);
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            Object[] previous = enterSignal();
+            try {
+                actual.onError(t);
+            } finally {
+                exitTerminal(previous);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            Object[] previous = enterSignal();
+            try {
+                actual.onComplete();
+            } finally {
+                exitTerminal(previous);
+            }
+        }
+
+        // The values to put back right after the signal, null when they stay set on a worker
+        Object[] enterSignal() {
+            Thread thread = Thread.currentThread();
+            Object[] previous = enter(values);
+            if (thread == subscriber) {
+                return previous;
+            }
+            if (thread != worker) {
+                worker = thread;
+                workerPrevious = previous;
+            } else if (workerPrevious == null) {
+                workerPrevious = previous;
+            }
+            return null;
+        }
+
+        void exitTerminal(Object[] previous) {
+            if (previous != null) {
+                exit(values, previous);
+            } else if (Thread.currentThread() == worker && workerPrevious != null) {
+                exit(values, workerPrevious);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package net.eherrera.reactor.error;
+
+import net.eherrera.reactor.function.ThrowingFunction;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.concurrent.Queues;
+
+import java.util.function.Function;
+
+// Fail-fast operators for functions that throw checked exceptions, use them with Flux.transform
+// (or Mono.transform for the Mono variants).
+// The exception is signaled as is with onError: no try/catch with Exceptions.propagate in the
+// lambda, no ReactiveException wrapper to allocate and unwrap later.
+// As with map, onErrorContinue downstream also sees the original exception.
+public final class CheckedErrors {
+    private CheckedErrors() {
+    }
+
+    public static <T, R> Function<Flux<T>, Flux<R>> mapChecked(ThrowingFunction<? super T, ? extends R> mapper) {
+        return flux -> flux.handle((value, sink) -> {
+            R result;
+            try {
+                result = mapper.apply(value);
+            } catch (Exception e) {
+                sink.error(e);
+                return;
+            }
+            if (result == null) {
+                // Like map, a null isn't a missing element
+                sink.error(new NullPointerException("The mapper returned a null value."));
+                return;
+            }
+            sink.next(result);
+        });
+    }
+
+    public static <T, R> Function<Mono<T>, Mono<R>> mapCheckedMono(ThrowingFunction<? super T, ? extends R> mapper) {
+        return mono -> mono.handle((value, sink) -> {
+            R result;
+            try {
+                result = mapper.apply(value);
+            } catch (Exception e) {
+                sink.error(e);
+                return;
+            }
+            if (result == null) {
+                // Like map, a null isn't a missing element
+                sink.error(new NullPointerException("The mapper returned a null value."));
+                return;
+            }
+            sink.next(result);
+        });
+    }
+
+    public static <T, R> Function<Flux<T>, Flux<R>> flatMapChecked(
+            ThrowingFunction<? super T, ? extends Publisher<? extends R>> mapper) {
+        return flatMapChecked(mapper, Queues.SMALL_BUFFER_SIZE);
+    }
+
+    // The publishers are created with mapChecked, so a failure in mapper doesn't need a Flux.error per element
+    public static <T, R> Function<Flux<T>, Flux<R>> flatMapChecked(
+            ThrowingFunction<? super T, ? extends Publisher<? extends R>> mapper,
+            int concurrency) {
+        return flux -> flux
+                .transform(CheckedErrors.<T, Publisher<? extends R>>mapChecked(mapper))
+                .flatMap(Function.identity(), concurrency);
+    }
+
+    public static <T, R> Function<Mono<T>, Mono<R>> flatMapCheckedMono(
+            ThrowingFunction<? super T, ? extends Mono<? extends R>> mapper) {
+        return mono -> mono
+                .transform(CheckedErrors.<T, Mono<? extends R>>mapCheckedMono(mapper))
+                .flatMap(Function.identity());
+    }
+}
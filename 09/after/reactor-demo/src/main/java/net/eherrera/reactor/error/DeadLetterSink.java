@@ -0,0 +1,300 @@
+package net.eherrera.reactor.error;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.util.Logger;
+import reactor.util.Loggers;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+// Persists the elements that failed (and their causes) for reprocessing, without slowing down
+// the stream: onErrorContinue only puts them in a bounded lock-free queue, and a background
+// writer thread appends them to a local file, one tab-separated line per element:
+//     timestamp  value  exception class  exception message
+// When the queue is full, the overflow policy decides what happens:
+//     DROP_OLDEST - the oldest pending element is dropped to make room
+//     BLOCK       - the producer waits until there's room (or the sink is disposed)
+//     SAMPLE      - only one of every sampleRate elements replaces the oldest, the rest are dropped
+// dispose() writes the pending elements and closes the file.
+public final class DeadLetterSink implements Disposable {
+    private static final Logger log = Loggers.getLogger(DeadLetterSink.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    public enum OverflowPolicy {
+        DROP_OLDEST, BLOCK, SAMPLE
+    }
+
+    private final Path file;
+    private final OverflowPolicy policy;
+    private final int sampleRate;
+    private final Function<Object, String> formatter;
+    private final BoundedQueue<DeadLetter> queue;
+    private final BufferedWriter writer;
+    private final Thread writerThread;
+    private final AtomicLong offered = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private volatile boolean disposed;
+
+    private DeadLetterSink(Path file, int capacity, OverflowPolicy policy, int sampleRate,
+                           Function<Object, String> formatter) {
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("sampleRate must be at least 1, was " + sampleRate);
+        }
+        this.file = file;
+        this.policy = policy;
+        this.sampleRate = sampleRate;
+        this.formatter = formatter;
+        this.queue = new BoundedQueue<>(capacity);
+        try {
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't open the dead-letter file " + file, e);
+        }
+        this.writerThread = new Thread(this::drainLoop, "dead-letter-writer-" + file.getFileName());
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    public static DeadLetterSink create(Path file) {
+        return create(file, 1024, OverflowPolicy.DROP_OLDEST);
+    }
+
+    public static DeadLetterSink create(Path file, int capacity, OverflowPolicy policy) {
+        return new DeadLetterSink(file, capacity, policy, 10, String::valueOf);
+    }
+
+    public static DeadLetterSink create(Path file, int capacity, OverflowPolicy policy, int sampleRate,
+                                        Function<Object, String> formatter) {
+        return new DeadLetterSink(file, capacity, policy, sampleRate, formatter);
+    }
+
+    // Use with Flux.transform, after the operators whose errors should be dead-lettered
+    public <T> Function<Flux<T>, Flux<T>> onErrorContinue() {
+        return flux -> flux.onErrorContinue(this::offer);
+    }
+
+    // Can be called from any thread. Returns false if the element was dropped
+    public boolean offer(Throwable error, Object value) {
+        offered.incrementAndGet();
+        DeadLetter letter = new DeadLetter(System.currentTimeMillis(), value, error);
+        if (disposed) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        if (!enqueue(letter)) {
+            return false;
+        }
+        if (!disposed) {
+            return true;
+        }
+        // Disposed while enqueuing: the writer's final drain may or may not have taken it
+        awaitWriter();
+        dropLeftovers();
+        return letter.drained;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public long offered() {
+        return offered.get();
+    }
+
+    public long written() {
+        return written.get();
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    // Number of elements that found the queue full
+    public long overflows() {
+        return overflows.get();
+    }
+
+    public long failedWrites() {
+        return failedWrites.get();
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    @Override
+    public void dispose() {
+        if (disposed) {
+            return;
+        }
+        disposed = true;
+        LockSupport.unpark(writerThread);
+        awaitWriter();
+        dropLeftovers();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    @Override
+    public String toString() {
+        return "DeadLetterSink{file=" + file
+                + ", offered=" + offered.get()
+                + ", written=" + written.get()
+                + ", dropped=" + dropped.get()
+                + ", overflows=" + overflows.get()
+                + ", pending=" + queue.size() + '}';
+    }
+
+    private boolean enqueue(DeadLetter letter) {
+        if (queue.offer(letter)) {
+            return true;
+        }
+        long overflow = overflows.incrementAndGet();
+        switch (policy) {
+            case BLOCK:
+                while (!queue.offer(letter)) {
+                    if (disposed) {
+                        dropped.incrementAndGet();
+                        return false;
+                    }
+                    LockSupport.unpark(writerThread);
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                }
+                return true;
+            case SAMPLE:
+                if (overflow % sampleRate != 0) {
+                    dropped.incrementAndGet();
+                    return false;
+                }
+                return replaceOldest(letter);
+            default:
+                return replaceOldest(letter);
+        }
+    }
+
+    private void awaitWriter() {
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Once the writer is done, only the elements enqueued after its final drain are left, they're
+    // counted as dropped instead of being lost without a trace
+    private void dropLeftovers() {
+        while (queue.poll() != null) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private boolean replaceOldest(DeadLetter letter) {
+        while (!queue.offer(letter)) {
+            if (queue.poll() != null) {
+                dropped.incrementAndGet();
+            }
+        }
+        return true;
+    }
+
+    private void drainLoop() {
+        try {
+            for (;;) {
+                boolean done = disposed;
+                DeadLetter letter;
+                int count = 0;
+                while ((letter = queue.poll()) != null) {
+                    letter.drained = true;
+                    write(letter);
+                    count++;
+                }
+                if (count > 0) {
+                    flush();
+                }
+                if (done) {
+                    return;
+                }
+                if (count == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        } finally {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.warn("Can't close the dead-letter file " + file, e);
+            }
+        }
+    }
+
+    private void write(DeadLetter letter) {
+        try {
+            writer.write(Instant.ofEpochMilli(letter.timestamp).toString());
+            writer.write('\t');
+            writer.write(escape(formatter.apply(letter.value)));
+            writer.write('\t');
+            writer.write(letter.error.getClass().getName());
+            writer.write('\t');
+            writer.write(escape(letter.error.getMessage()));
+            writer.newLine();
+            written.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            if (failedWrites.getAndIncrement() == 0) {
+                log.warn("Can't write to the dead-letter file " + file, e);
+            }
+        }
+    }
+
+    private void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            failedWrites.incrementAndGet();
+            log.warn("Can't flush the dead-letter file " + file, e);
+        }
+    }
+
+    // One record per line
+    private static String escape(String s) {
+        if (s == null) {
+            return "";
+        }
+        return s.replace("\\", "\\\\")
+                .replace("\t", "\\t")
+                .replace("\n", "\\n")
+                .replace("\r", "\\r");
+    }
+
+    private static final class DeadLetter {
+        final long timestamp;
+        final Object value;
+        final Throwable error;
+        // Set by the writer, read by the producer once the writer is done
+        boolean drained;
+
+        DeadLetter(long timestamp, Object value, Throwable error) {
+            this.timestamp = timestamp;
+            this.value = value;
+            this.error = error;
+        }
+    }
+}
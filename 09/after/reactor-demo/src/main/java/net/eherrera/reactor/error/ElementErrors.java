@@ -0,0 +1,137 @@
+package net.eherrera.reactor.error;
+
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SynchronousSink;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+// Per-element error isolation, use them with Flux.transform.
+// mapCatching has the same semantics as
+//     flatMap(val -> Mono.just(val).map(mapper).onErrorResume(e -> Mono.justOrEmpty(recovery(val, e))))
+// but the exception is caught inline, without creating and subscribing to an inner publisher
+// for every element, and the order of the elements is kept.
+// When recovery returns null, nothing is emitted for that element. If recovery throws,
+// or the exception isn't of the given type, the sequence terminates with that error.
+// A mapper returning null signals a NullPointerException, recovered like any other, as map does.
+// handleCatching has the semantics of handle instead: sink.complete() completes the whole
+// sequence, not only the element (an inner Mono can't do that).
+public final class ElementErrors {
+    private ElementErrors() {
+    }
+
+    public static <T, R> Function<Flux<T>, Flux<R>> mapCatching(
+            Function<? super T, ? extends R> mapper,
+            BiFunction<? super T, ? super Throwable, ? extends R> recovery) {
+        return mapCatching(mapper, Throwable.class, recovery);
+    }
+
+    public static <T, R, E extends Throwable> Function<Flux<T>, Flux<R>> mapCatching(
+            Function<? super T, ? extends R> mapper,
+            Class<E> type,
+            BiFunction<? super T, ? super E, ? extends R> recovery) {
+        return flux -> flux.handle((value, sink) -> {
+            R result;
+            try {
+                result = mapper.apply(value);
+                if (result == null) {
+                    throw new NullPointerException("The mapper returned a null value.");
+                }
+            } catch (Throwable e) {
+                Exceptions.throwIfJvmFatal(e);
+                if (!type.isInstance(e)) {
+                    sink.error(e);
+                    return;
+                }
+                result = recovery.apply(value, type.cast(e));
+            }
+            if (result != null) {
+                sink.next(result);
+            }
+        });
+    }
+
+    // Like handle, but an exception thrown by the handler or signaled with sink.error
+    // is routed to recovery instead of terminating the sequence
+    public static <T, R> Function<Flux<T>, Flux<R>> handleCatching(
+            BiConsumer<? super T, SynchronousSink<R>> handler,
+            BiFunction<? super T, ? super Throwable, ? extends R> recovery) {
+        return handleCatching(handler, Throwable.class, recovery);
+    }
+
+    public static <T, R, E extends Throwable> Function<Flux<T>, Flux<R>> handleCatching(
+            BiConsumer<? super T, SynchronousSink<R>> handler,
+            Class<E> type,
+            BiFunction<? super T, ? super E, ? extends R> recovery) {
+        // handle is serial, so one sink per subscription is enough
+        return flux -> Flux.defer(() -> {
+            CatchingSink<R> catching = new CatchingSink<>();
+            return flux.handle((value, sink) -> {
+                catching.reset(sink);
+                try {
+                    handler.accept(value, catching);
+                } catch (Throwable e) {
+                    Exceptions.throwIfJvmFatal(e);
+                    catching.error = e;
+                }
+                Throwable e = catching.error;
+                if (e == null) {
+                    return;
+                }
+                if (!type.isInstance(e)) {
+                    sink.error(e);
+                    return;
+                }
+                // Like the inner Mono, a value already emitted for this element is kept
+                R result = catching.emitted ? null : recovery.apply(value, type.cast(e));
+                if (result != null) {
+                    sink.next(result);
+                }
+            });
+        });
+    }
+
+    private static final class CatchingSink<R> implements SynchronousSink<R> {
+        SynchronousSink<R> delegate;
+        Throwable error;
+        boolean emitted;
+
+        void reset(SynchronousSink<R> delegate) {
+            this.delegate = delegate;
+            this.error = null;
+            this.emitted = false;
+        }
+
+        // Completes the sequence, as with handle
+        @Override
+        public void complete() {
+            delegate.complete();
+        }
+
+        @Override
+        @Deprecated
+        public Context currentContext() {
+            return delegate.currentContext();
+        }
+
+        @Override
+        public ContextView contextView() {
+            return delegate.contextView();
+        }
+
+        @Override
+        public void error(Throwable e) {
+            error = e;
+        }
+
+        @Override
+        public void next(R value) {
+            emitted = true;
+            delegate.next(value);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package net.eherrera.reactor.error;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+// Operators for ExpectedException, use them with Flux.transform
+public final class ExpectedErrors {
+    private ExpectedErrors() {
+    }
+
+    public static <T> Function<Flux<T>, Flux<T>> onExpectedErrorReturn(T fallback) {
+        return flux -> flux.onErrorReturn(ExpectedException.class, fallback);
+    }
+
+    public static <T> Function<Flux<T>, Flux<T>> onExpectedErrorResume(
+            Function<? super ExpectedException, ? extends Publisher<? extends T>> fallback) {
+        return flux -> flux.onErrorResume(ExpectedException.class, fallback);
+    }
+
+    // Recovers per element: when mapper throws an ExpectedException, the value returned by recovery
+    // is emitted instead (nothing is emitted if it's null) and the sequence goes on.
+    // Any other exception terminates the sequence, as with map.
+    public static <T, R> Function<Flux<T>, Flux<R>> mapOrRecover(
+            Function<? super T, ? extends R> mapper,
+            BiFunction<? super T, ? super ExpectedException, ? extends R> recovery) {
+        return flux -> flux.handle((value, sink) -> {
+            R result;
+            try {
+                result = mapper.apply(value);
+            } catch (ExpectedException e) {
+                result = recovery.apply(value, e);
+            }
+            if (result != null) {
+                sink.next(result);
+            }
+        });
+    }
+}
@@ -0,0 +1,15 @@
+package net.eherrera.reactor.error;
+
+// Base type for failures that are part of normal operation (invalid input, missing data, ...).
+// They don't capture a stack trace and don't record suppressed exceptions, so creating one is
+// about as cheap as any other object, and a single instance can be shared between threads:
+//     static final ValidationException DIVISOR_IS_ZERO = new ValidationException("Divisor is zero");
+public class ExpectedException extends RuntimeException {
+    public ExpectedException(String message) {
+        super(message, null, false, false);
+    }
+
+    public ExpectedException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+}
@@ -0,0 +1,9 @@
+package net.eherrera.reactor.error;
+
+public class NotFoundException extends ExpectedException {
+    public static final NotFoundException INSTANCE = new NotFoundException("Not found");
+
+    public NotFoundException(String message) {
+        super(message);
+    }
+}
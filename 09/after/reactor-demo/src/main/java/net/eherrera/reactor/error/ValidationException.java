@@ -0,0 +1,9 @@
+package net.eherrera.reactor.error;
+
+public class ValidationException extends ExpectedException {
+    public static final ValidationException INSTANCE = new ValidationException("Validation failed");
+
+    public ValidationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,6 @@
+package net.eherrera.reactor.function;
+
+@FunctionalInterface
+public interface ThrowingFunction<T, R> {
+    R apply(T t) throws Exception;
+}
@@ -0,0 +1,153 @@
+package net.eherrera.reactor.http;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.context.Context;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// A shared replacement for creating an HttpClient per call (as fetchUrlContent of Exercise01
+// in module 8 does). Create one per application (or per remote service) and reuse it:
+//     HttpFetcher fetcher = HttpFetcher.create("content", 50);
+//     fetcher.fetch(url).blockOptional(timeout)
+// Requests go through a pool of at most maxConnections keep-alive connections; up to twice as
+// many requests wait for a connection, the rest fail with PoolAcquirePendingLimitException.
+// Responses with an ETag or a Last-Modified header are cached: the next request for the URL is
+// a conditional GET, and a 304 Not Modified returns the cached body without transferring it.
+// At most maxCacheEntries URLs are cached, the others are fetched in full every time.
+// dispose() closes the pooled connections.
+public final class HttpFetcher implements Disposable {
+    private final ConnectionProvider provider;
+    private final HttpClient client;
+    private final int maxCacheEntries;
+    private final ConcurrentMap<String, CachedResponse> cache = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+
+    private HttpFetcher(String name, int maxConnections, int maxCacheEntries, Duration maxIdleTime) {
+        if (maxConnections < 1 || maxCacheEntries < 0) {
+            throw new IllegalArgumentException("Expected maxConnections >= 1 and maxCacheEntries >= 0, was "
+                    + maxConnections + " and " + maxCacheEntries);
+        }
+        this.provider = ConnectionProvider.builder(name)
+                .maxConnections(maxConnections)
+                .maxIdleTime(maxIdleTime)
+                .build();
+        // The validators are added from the Context, client.headers per request would copy the whole configuration
+        this.client = HttpClient.create(provider)
+                .keepAlive(true)
+                .doOnRequest((request, connection) -> {
+                    CachedResponse cached = request.currentContextView().getOrDefault(CachedResponse.class, null);
+                    if (cached != null) {
+                        cached.addValidators(request.requestHeaders());
+                    }
+                });
+        this.maxCacheEntries = maxCacheEntries;
+    }
+
+    public static HttpFetcher create(String name, int maxConnections) {
+        return create(name, maxConnections, 1024, Duration.ofSeconds(30));
+    }
+
+    public static HttpFetcher create(String name, int maxConnections, int maxCacheEntries, Duration maxIdleTime) {
+        return new HttpFetcher(name, maxConnections, maxCacheEntries, maxIdleTime);
+    }
+
+    public Mono<String> fetch(String url) {
+        return Mono.defer(() -> {
+            requests.incrementAndGet();
+            CachedResponse cached = cache.get(url);
+            Mono<String> get = client.get()
+                    .uri(url)
+                    .responseSingle((response, content) -> {
+                        int status = response.status().code();
+                        // The content is always consumed, or the connection is closed instead of going back to the pool
+                        if (status == HttpResponseStatus.NOT_MODIFIED.code() && cached != null) {
+                            notModified.incrementAndGet();
+                            return content.thenReturn(cached.body);
+                        }
+                        if (status / 100 != 2) {
+                            return content.then(Mono.error(new HttpStatusException(status, url)));
+                        }
+                        return content.asString(StandardCharsets.UTF_8)
+                                .defaultIfEmpty("")
+                                .doOnNext(body -> store(url, response.responseHeaders(), body));
+                    });
+            return cached == null ? get : get.contextWrite(Context.of(CachedResponse.class, cached));
+        });
+    }
+
+    public void invalidate(String url) {
+        cache.remove(url);
+    }
+
+    @Override
+    public void dispose() {
+        provider.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return provider.isDisposed();
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    // Requests answered with 304 Not Modified and served from the cache
+    public long notModified() {
+        return notModified.get();
+    }
+
+    public int cachedUrls() {
+        return cache.size();
+    }
+
+    @Override
+    public String toString() {
+        return "HttpFetcher{requests=" + requests.get()
+                + ", notModified=" + notModified.get()
+                + ", cachedUrls=" + cache.size() + '}';
+    }
+
+    private void store(String url, HttpHeaders headers, String body) {
+        String etag = headers.get(HttpHeaderNames.ETAG);
+        String lastModified = headers.get(HttpHeaderNames.LAST_MODIFIED);
+        if (etag == null && lastModified == null) {
+            cache.remove(url);
+        } else if (cache.size() < maxCacheEntries || cache.containsKey(url)) {
+            cache.put(url, new CachedResponse(etag, lastModified, body));
+        }
+    }
+
+    private static final class CachedResponse {
+        final String etag;
+        final String lastModified;
+        final String body;
+
+        CachedResponse(String etag, String lastModified, String body) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+
+        void addValidators(HttpHeaders headers) {
+            if (etag != null) {
+                headers.set(HttpHeaderNames.IF_NONE_MATCH, etag);
+            }
+            if (lastModified != null) {
+                headers.set(HttpHeaderNames.IF_MODIFIED_SINCE, lastModified);
+            }
+        }
+    }
+}
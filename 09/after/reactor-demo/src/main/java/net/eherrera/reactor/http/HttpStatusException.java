@@ -0,0 +1,15 @@
+package net.eherrera.reactor.http;
+
+// Signaled by HttpFetcher for a response that isn't 2xx (or a 304 for a cached URL)
+public class HttpStatusException extends RuntimeException {
+    private final int status;
+
+    public HttpStatusException(int status, String url) {
+        super("HTTP " + status + " for " + url);
+        this.status = status;
+    }
+
+    public int status() {
+        return status;
+    }
+}
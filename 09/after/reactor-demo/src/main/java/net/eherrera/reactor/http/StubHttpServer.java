@@ -0,0 +1,102 @@
+package net.eherrera.reactor.http;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+// An in-process HTTP server on a random local port, to run examples, tests and benchmarks of
+// HTTP clients offline. Every GET returns the same body, with an ETag and a Last-Modified
+// header, or 304 Not Modified when the request has the matching If-None-Match.
+//     StubHttpServer server = StubHttpServer.start("Hello");
+//     fetchUrlContent(server.url("/hello"))
+public final class StubHttpServer implements Disposable {
+    private final DisposableServer server;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong connections = new AtomicLong();
+
+    private StubHttpServer(String body, Duration delay) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        String etag = "\"" + Integer.toHexString(body.hashCode()) + "\"";
+        String lastModified = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC));
+        this.server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .doOnChannelInit((observer, channel, remoteAddress) -> connections.incrementAndGet())
+                .handle((request, response) -> {
+                    requests.incrementAndGet();
+                    Mono<Void> reply;
+                    if (etag.equals(request.requestHeaders().get(HttpHeaderNames.IF_NONE_MATCH))) {
+                        notModified.incrementAndGet();
+                        // Without a length, Netty closes the connection after a 304
+                        reply = response.status(HttpResponseStatus.NOT_MODIFIED)
+                                .header(HttpHeaderNames.ETAG, etag)
+                                .header(HttpHeaderNames.CONTENT_LENGTH, "0")
+                                .send();
+                    } else {
+                        reply = response.header(HttpHeaderNames.ETAG, etag)
+                                .header(HttpHeaderNames.LAST_MODIFIED, lastModified)
+                                .header(HttpHeaderNames.CONTENT_TYPE, "text/plain; charset=utf-8")
+                                .header(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(bytes.length))
+                                .sendByteArray(Mono.just(bytes))
+                                .then();
+                    }
+                    return delay.isZero() ? reply : Mono.delay(delay).then(reply);
+                })
+                .bindNow();
+    }
+
+    public static StubHttpServer start(String body) {
+        return start(body, Duration.ZERO);
+    }
+
+    // Every response is sent after delay, like a slow remote server
+    public static StubHttpServer start(String body, Duration delay) {
+        return new StubHttpServer(body, delay);
+    }
+
+    public String url(String path) {
+        return "http://127.0.0.1:" + server.port() + path;
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    public long notModified() {
+        return notModified.get();
+    }
+
+    // TCP connections accepted, to check that clients reuse them
+    public long connections() {
+        return connections.get();
+    }
+
+    @Override
+    public void dispose() {
+        server.disposeNow();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return server.isDisposed();
+    }
+
+    @Override
+    public String toString() {
+        return "StubHttpServer{port=" + server.port()
+                + ", requests=" + requests.get()
+                + ", notModified=" + notModified.get()
+                + ", connections=" + connections.get() + '}';
+    }
+}
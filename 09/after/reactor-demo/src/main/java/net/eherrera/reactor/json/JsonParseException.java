@@ -0,0 +1,16 @@
+package net.eherrera.reactor.json;
+
+// Signaled by JsonTokenizer for invalid or incomplete JSON, offset is the number of bytes
+// before the one that couldn't be parsed
+public class JsonParseException extends RuntimeException {
+    private final long offset;
+
+    public JsonParseException(String message, long offset) {
+        super(message + " at byte " + offset);
+        this.offset = offset;
+    }
+
+    public long offset() {
+        return offset;
+    }
+}
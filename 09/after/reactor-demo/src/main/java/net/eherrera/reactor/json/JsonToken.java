@@ -0,0 +1,77 @@
+package net.eherrera.reactor.json;
+
+import java.math.BigInteger;
+
+// A token emitted by JsonTokenizer. depth is the number of arrays and objects around it, the
+// start and the end of an array or object have the depth of the array or object itself:
+//     [1, {"a": 2}]  ->  START_ARRAY(0) NUMBER(1) START_OBJECT(1) FIELD_NAME(2) NUMBER(2) END_OBJECT(1) END_ARRAY(0)
+public final class JsonToken {
+    public enum Type {
+        START_OBJECT, END_OBJECT, START_ARRAY, END_ARRAY, FIELD_NAME, STRING, NUMBER, TRUE, FALSE, NULL;
+
+        public boolean isScalar() {
+            return this == STRING || this == NUMBER || this == TRUE || this == FALSE || this == NULL;
+        }
+    }
+
+    private final Type type;
+    private final String text;
+    private final int depth;
+
+    JsonToken(Type type, String text, int depth) {
+        this.type = type;
+        this.text = text;
+        this.depth = depth;
+    }
+
+    public Type type() {
+        return type;
+    }
+
+    // The unescaped text of a FIELD_NAME or a STRING, the text of a NUMBER, null for the others
+    public String text() {
+        return text;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    // A Long for integers in its range, a BigInteger for bigger integers, a Double otherwise
+    public Number numberValue() {
+        if (type != Type.NUMBER) {
+            throw new IllegalStateException("Not a number: " + this);
+        }
+        if (text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+            if (text.length() < 19) {
+                return Long.parseLong(text);
+            }
+            BigInteger value = new BigInteger(text);
+            return value.bitLength() < 64 ? (Number) value.longValue() : value;
+        }
+        return Double.parseDouble(text);
+    }
+
+    // The Java value of a scalar: a String, a Number, a Boolean or null
+    public Object scalarValue() {
+        switch (type) {
+            case STRING:
+                return text;
+            case NUMBER:
+                return numberValue();
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case NULL:
+                return null;
+            default:
+                throw new IllegalStateException("Not a scalar: " + this);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return text == null ? type + "(" + depth + ")" : type + "(" + depth + ", " + text + ")";
+    }
+}
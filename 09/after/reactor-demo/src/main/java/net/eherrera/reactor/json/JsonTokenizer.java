@@ -0,0 +1,491 @@
+package net.eherrera.reactor.json;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SynchronousSink;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+// Parses JSON incrementally from a Flux of byte buffers (UTF-8), instead of joining the whole
+// payload into a String first:
+//     JsonTokenizer json = JsonTokenizer.create();
+//     bytes.transform(json.values(1))      // the elements of a (huge) top-level array, one by one
+// Buffers can end anywhere, in the middle of a string, a number, an escape or a UTF-8 character.
+// The tokenizer only keeps the bytes of the token it's in and the nesting of the arrays and
+// objects, and it's fed one buffer at a time as the tokens are requested, so the memory doesn't
+// depend on the size of the payload, only on maxTokenLength and maxDepth.
+// The input can be a sequence of documents (like NDJSON), an incomplete document at the end is
+// an error. A buffer is read between its position and its limit, without moving them, when the
+// tokenizer gets to it (not in onNext): it must stay valid until then, with reactor-netty, map
+// asByteArray() with ByteBuffer::wrap instead of using asByteBuffer().
+public final class JsonTokenizer {
+    // Buffers fetched ahead
+    private static final int PREFETCH = 2;
+    // What comes next outside of a token
+    private static final int VALUE = 0;
+    private static final int VALUE_OR_END_ARRAY = 1;
+    private static final int FIELD_OR_END_OBJECT = 2;
+    private static final int FIELD = 3;
+    private static final int COLON = 4;
+    private static final int COMMA_OR_END = 5;
+    // The token it's in
+    private static final int NONE = 0;
+    private static final int STRING = 1;
+    private static final int ESCAPE = 2;
+    private static final int UNICODE = 3;
+    private static final int NUMBER = 4;
+    private static final int LITERAL = 5;
+
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+    private final int maxDepth;
+    private final int maxTokenLength;
+
+    private JsonTokenizer(int maxDepth, int maxTokenLength) {
+        if (maxDepth < 1 || maxTokenLength < 1) {
+            throw new IllegalArgumentException("Expected maxDepth >= 1 and maxTokenLength >= 1, was "
+                    + maxDepth + " and " + maxTokenLength);
+        }
+        this.maxDepth = maxDepth;
+        this.maxTokenLength = maxTokenLength;
+    }
+
+    public static JsonTokenizer create() {
+        return create(256, 1024 * 1024);
+    }
+
+    // maxTokenLength is in bytes, a longer string or number is an error
+    public static JsonTokenizer create(int maxDepth, int maxTokenLength) {
+        return new JsonTokenizer(maxDepth, maxTokenLength);
+    }
+
+    public Function<Flux<ByteBuffer>, Flux<JsonToken>> tokens() {
+        return buffers -> Flux.defer(() -> {
+            Lexer lexer = new Lexer();
+            return buffers.concatMapIterable(lexer::feed, PREFETCH)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(lexer.finish())));
+        });
+    }
+
+    // Every value at the given depth, as a Map (for objects), a List, a String, a Number or a
+    // Boolean: depth 0 for the documents, depth 1 for the elements of top-level arrays (or the
+    // values of top-level objects). A null at that depth is skipped, nested ones are kept.
+    public Function<Flux<ByteBuffer>, Flux<Object>> values(int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("depth must be >= 0, was " + depth);
+        }
+        return buffers -> buffers.transform(tokens())
+                .transform(tokens -> Flux.defer(() -> tokens.handle(new ValueBuilder(depth))));
+    }
+
+    // The state of one subscription, fed by one buffer at a time
+    private final class Lexer {
+        int expect = VALUE;
+        int lex = NONE;
+        // '{' or '[' for every open object or array
+        byte[] containers = new byte[16];
+        int depth;
+        boolean fieldName;
+        byte[] text = new byte[Math.min(64, maxTokenLength)];
+        int textLength;
+        // For literals: the one expected and how much of it was read
+        byte[] literal;
+        int literalIndex;
+        // For \\u escapes: the hex digits read, their value and a high surrogate waiting for the low one
+        int hexDigits;
+        int codeUnit;
+        int highSurrogate = -1;
+        // The bytes before the current buffer
+        long offset;
+        List<JsonToken> tokens;
+
+        List<JsonToken> feed(ByteBuffer buffer) {
+            tokens = new ArrayList<>();
+            int start = buffer.position();
+            for (int i = start, n = buffer.limit(); i < n; i++) {
+                next(buffer.get(i) & 0xff, offset + i - start);
+            }
+            offset += buffer.limit() - start;
+            return tokens;
+        }
+
+        List<JsonToken> finish() {
+            tokens = new ArrayList<>();
+            if (lex == NUMBER) {
+                endNumber();
+            }
+            if (lex != NONE || depth > 0) {
+                throw new JsonParseException("Unexpected end of input", offset);
+            }
+            return tokens;
+        }
+
+        void next(int b, long position) {
+            switch (lex) {
+                case STRING:
+                    if (b == '"') {
+                        endString();
+                    } else if (b == '\\') {
+                        lex = ESCAPE;
+                    } else if (b < 0x20) {
+                        throw new JsonParseException("Unescaped control character in string", position);
+                    } else {
+                        flushSurrogate();
+                        append(b, position);
+                    }
+                    return;
+                case ESCAPE:
+                    escape(b, position);
+                    return;
+                case UNICODE:
+                    int digit = Character.digit(b, 16);
+                    if (digit < 0) {
+                        throw new JsonParseException("Invalid \\u escape", position);
+                    }
+                    codeUnit = codeUnit * 16 + digit;
+                    if (++hexDigits == 4) {
+                        appendCodeUnit(codeUnit, position);
+                        lex = STRING;
+                    }
+                    return;
+                case NUMBER:
+                    if ((b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E') {
+                        append(b, position);
+                        return;
+                    }
+                    endNumber(position);
+                    // The byte after the number
+                    break;
+                case LITERAL:
+                    if (b != literal[literalIndex]) {
+                        throw new JsonParseException("Invalid literal", position);
+                    }
+                    if (++literalIndex == literal.length) {
+                        lex = NONE;
+                        emit(literal == TRUE ? JsonToken.Type.TRUE
+                                : literal == FALSE ? JsonToken.Type.FALSE
+                                : JsonToken.Type.NULL, null);
+                        afterValue();
+                    }
+                    return;
+            }
+            if (b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                return;
+            }
+            switch (expect) {
+                case VALUE:
+                case VALUE_OR_END_ARRAY:
+                    if (b == ']' && expect == VALUE_OR_END_ARRAY) {
+                        end(JsonToken.Type.END_ARRAY);
+                    } else {
+                        startValue(b, position);
+                    }
+                    break;
+                case FIELD_OR_END_OBJECT:
+                case FIELD:
+                    if (b == '"') {
+                        lex = STRING;
+                        fieldName = true;
+                    } else if (b == '}' && expect == FIELD_OR_END_OBJECT) {
+                        end(JsonToken.Type.END_OBJECT);
+                    } else {
+                        throw new JsonParseException("Expected a field name", position);
+                    }
+                    break;
+                case COLON:
+                    if (b != ':') {
+                        throw new JsonParseException("Expected ':'", position);
+                    }
+                    expect = VALUE;
+                    break;
+                default:
+                    byte container = containers[depth - 1];
+                    if (b == ',') {
+                        expect = container == '{' ? FIELD : VALUE;
+                    } else if (b == '}' && container == '{') {
+                        end(JsonToken.Type.END_OBJECT);
+                    } else if (b == ']' && container == '[') {
+                        end(JsonToken.Type.END_ARRAY);
+                    } else {
+                        throw new JsonParseException("Expected ',' or '" + (container == '{' ? '}' : ']') + "'", position);
+                    }
+            }
+        }
+
+        void startValue(int b, long position) {
+            if (b == '{' || b == '[') {
+                if (depth == maxDepth) {
+                    throw new JsonParseException("Nested deeper than " + maxDepth, position);
+                }
+                emit(b == '{' ? JsonToken.Type.START_OBJECT : JsonToken.Type.START_ARRAY, null);
+                if (depth == containers.length) {
+                    containers = Arrays.copyOf(containers, depth * 2);
+                }
+                containers[depth++] = (byte) b;
+                expect = b == '{' ? FIELD_OR_END_OBJECT : VALUE_OR_END_ARRAY;
+            } else if (b == '"') {
+                lex = STRING;
+                fieldName = false;
+            } else if (b == '-' || (b >= '0' && b <= '9')) {
+                lex = NUMBER;
+                append(b, position);
+            } else if (b == 't' || b == 'f' || b == 'n') {
+                lex = LITERAL;
+                literal = b == 't' ? TRUE : b == 'f' ? FALSE : NULL;
+                literalIndex = 1;
+            } else {
+                throw new JsonParseException("Unexpected character '" + (char) b + "'", position);
+            }
+        }
+
+        void end(JsonToken.Type type) {
+            depth--;
+            emit(type, null);
+            afterValue();
+        }
+
+        void afterValue() {
+            expect = depth == 0 ? VALUE : COMMA_OR_END;
+        }
+
+        void endString() {
+            flushSurrogate();
+            lex = NONE;
+            if (fieldName) {
+                emit(JsonToken.Type.FIELD_NAME, takeText());
+                expect = COLON;
+            } else {
+                emit(JsonToken.Type.STRING, takeText());
+                afterValue();
+            }
+        }
+
+        // At the end of the input, the position is the end
+        void endNumber() {
+            endNumber(offset);
+        }
+
+        void endNumber(long position) {
+            if (!isNumber(text, textLength)) {
+                throw new JsonParseException("Invalid number", position - textLength);
+            }
+            lex = NONE;
+            emit(JsonToken.Type.NUMBER, takeText());
+            afterValue();
+        }
+
+        void escape(int b, long position) {
+            lex = STRING;
+            if (b == 'u') {
+                lex = UNICODE;
+                hexDigits = 0;
+                codeUnit = 0;
+                return;
+            }
+            flushSurrogate();
+            switch (b) {
+                case '"':
+                case '\\':
+                case '/':
+                    append(b, position);
+                    break;
+                case 'b':
+                    append('\b', position);
+                    break;
+                case 'f':
+                    append('\f', position);
+                    break;
+                case 'n':
+                    append('\n', position);
+                    break;
+                case 'r':
+                    append('\r', position);
+                    break;
+                case 't':
+                    append('\t', position);
+                    break;
+                default:
+                    throw new JsonParseException("Invalid escape", position);
+            }
+        }
+
+        // A lone surrogate becomes U+FFFD, like String.getBytes does
+        void appendCodeUnit(int unit, long position) {
+            if (highSurrogate >= 0) {
+                int high = highSurrogate;
+                highSurrogate = -1;
+                if (Character.isLowSurrogate((char) unit)) {
+                    appendCodePoint(Character.toCodePoint((char) high, (char) unit), position);
+                    return;
+                }
+                appendCodePoint(0xFFFD, position);
+            }
+            if (Character.isHighSurrogate((char) unit)) {
+                highSurrogate = unit;
+            } else {
+                appendCodePoint(Character.isLowSurrogate((char) unit) ? 0xFFFD : unit, position);
+            }
+        }
+
+        void flushSurrogate() {
+            if (highSurrogate >= 0) {
+                highSurrogate = -1;
+                appendCodePoint(0xFFFD, offset);
+            }
+        }
+
+        // As UTF-8, like the bytes around it
+        void appendCodePoint(int codePoint, long position) {
+            if (codePoint < 0x80) {
+                append(codePoint, position);
+            } else if (codePoint < 0x800) {
+                append(0xC0 | codePoint >> 6, position);
+                append(0x80 | codePoint & 0x3F, position);
+            } else if (codePoint < 0x10000) {
+                append(0xE0 | codePoint >> 12, position);
+                append(0x80 | codePoint >> 6 & 0x3F, position);
+                append(0x80 | codePoint & 0x3F, position);
+            } else {
+                append(0xF0 | codePoint >> 18, position);
+                append(0x80 | codePoint >> 12 & 0x3F, position);
+                append(0x80 | codePoint >> 6 & 0x3F, position);
+                append(0x80 | codePoint & 0x3F, position);
+            }
+        }
+
+        void append(int b, long position) {
+            if (textLength == text.length) {
+                if (textLength >= maxTokenLength) {
+                    throw new JsonParseException("Token longer than " + maxTokenLength + " bytes", position);
+                }
+                text = Arrays.copyOf(text, Math.min(textLength * 2, maxTokenLength));
+            }
+            text[textLength++] = (byte) b;
+        }
+
+        String takeText() {
+            String s = new String(text, 0, textLength, StandardCharsets.UTF_8);
+            textLength = 0;
+            return s;
+        }
+
+        void emit(JsonToken.Type type, String text) {
+            tokens.add(new JsonToken(type, text, depth));
+        }
+    }
+
+    // -?(0|[1-9][0-9]*)(\.[0-9]+)?([eE][+-]?[0-9]+)?
+    private static boolean isNumber(byte[] s, int n) {
+        int i = 0;
+        if (i < n && s[i] == '-') {
+            i++;
+        }
+        if (i < n && s[i] == '0') {
+            i++;
+        } else {
+            int digits = i;
+            i = skipDigits(s, i, n);
+            if (i == digits) {
+                return false;
+            }
+        }
+        if (i < n && s[i] == '.') {
+            int digits = ++i;
+            i = skipDigits(s, i, n);
+            if (i == digits) {
+                return false;
+            }
+        }
+        if (i < n && (s[i] == 'e' || s[i] == 'E')) {
+            i++;
+            if (i < n && (s[i] == '+' || s[i] == '-')) {
+                i++;
+            }
+            int digits = i;
+            i = skipDigits(s, i, n);
+            if (i == digits) {
+                return false;
+            }
+        }
+        return i == n;
+    }
+
+    private static int skipDigits(byte[] s, int i, int n) {
+        while (i < n && s[i] >= '0' && s[i] <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    // Builds the values at one depth from the tokens, Maps and Lists are added to their parent
+    // as soon as they start, so only the pending field name of the innermost object is kept
+    private static final class ValueBuilder implements BiConsumer<JsonToken, SynchronousSink<Object>> {
+        final int depth;
+        final Deque<Object> containers = new ArrayDeque<>();
+        String fieldName;
+
+        ValueBuilder(int depth) {
+            this.depth = depth;
+        }
+
+        @Override
+        public void accept(JsonToken token, SynchronousSink<Object> sink) {
+            if (token.depth() < depth) {
+                return;
+            }
+            switch (token.type()) {
+                case FIELD_NAME:
+                    // The fields of the objects above depth aren't built
+                    if (token.depth() > depth) {
+                        fieldName = token.text();
+                    }
+                    break;
+                case START_OBJECT:
+                case START_ARRAY:
+                    Object container = token.type() == JsonToken.Type.START_OBJECT
+                            ? new LinkedHashMap<String, Object>()
+                            : new ArrayList<>();
+                    add(container);
+                    containers.push(container);
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    Object value = containers.pop();
+                    if (containers.isEmpty()) {
+                        sink.next(value);
+                    }
+                    break;
+                default:
+                    Object scalar = token.scalarValue();
+                    if (containers.isEmpty()) {
+                        if (scalar != null) {
+                            sink.next(scalar);
+                        }
+                    } else {
+                        add(scalar);
+                    }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void add(Object value) {
+            Object parent = containers.peek();
+            if (parent instanceof Map) {
+                ((Map<String, Object>) parent).put(fieldName, value);
+            } else if (parent != null) {
+                ((List<Object>) parent).add(value);
+            }
+        }
+    }
+}
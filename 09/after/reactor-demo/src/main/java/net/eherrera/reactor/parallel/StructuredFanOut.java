@@ -0,0 +1,168 @@
+package net.eherrera.reactor.parallel;
+
+import net.eherrera.reactor.function.ThrowingFunction;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.ParallelFlux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+// Runs the blocking sub-work of each ParallelFlux group inside a scope: every element is a
+// subtask, the first failure cancels (interrupts) its siblings, and the results are joined
+// back into the Flux as one list per group, in the order of the group's elements.
+// Subtasks run on virtual threads when the JVM has them (Java 21+); otherwise they run on a
+// bounded pool of daemon threads, so a big fan-out doesn't create one platform thread per subtask.
+public final class StructuredFanOut {
+    private static final boolean VIRTUAL_THREADS = hasVirtualThreads();
+    private static final ExecutorService DEFAULT_EXECUTOR = createDefaultExecutor();
+
+    private StructuredFanOut() {
+    }
+
+    public static boolean usesVirtualThreads() {
+        return VIRTUAL_THREADS;
+    }
+
+    // Use with ParallelFlux.as
+    public static <T, R> Function<ParallelFlux<T>, Flux<List<R>>> fanOut(ThrowingFunction<? super T, ? extends R> work) {
+        return fanOut(DEFAULT_EXECUTOR, work);
+    }
+
+    public static <T, R> Function<ParallelFlux<T>, Flux<List<R>>> fanOut(ExecutorService executor,
+                                                                        ThrowingFunction<? super T, ? extends R> work) {
+        return parallelFlux -> parallelFlux.groups()
+                .flatMap(group -> group.collectList()
+                        .flatMap(elements -> scope(executor, elements, work)));
+    }
+
+    public static <T, R> Mono<List<R>> scope(List<T> elements, ThrowingFunction<? super T, ? extends R> work) {
+        return scope(DEFAULT_EXECUTOR, elements, work);
+    }
+
+    public static <T, R> Mono<List<R>> scope(ExecutorService executor, List<T> elements,
+                                             ThrowingFunction<? super T, ? extends R> work) {
+        if (elements.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return Mono.create(sink -> new Scope<T, R>(executor, elements, work, sink).start());
+    }
+
+    private static boolean hasVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static ExecutorService createDefaultExecutor() {
+        if (VIRTUAL_THREADS) {
+            try {
+                return (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor")
+                        .invoke(null);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Can't create a virtual thread executor", e);
+            }
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE, r -> {
+            Thread thread = new Thread(r, "fan-out-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static final class Scope<T, R> {
+        final ExecutorService executor;
+        final List<T> elements;
+        final ThrowingFunction<? super T, ? extends R> work;
+        final MonoSink<List<R>> sink;
+        final AtomicReferenceArray<R> results;
+        final AtomicInteger remaining;
+        final AtomicBoolean shutdown = new AtomicBoolean();
+        final AtomicReferenceArray<Future<?>> subtasks;
+
+        Scope(ExecutorService executor, List<T> elements, ThrowingFunction<? super T, ? extends R> work,
+              MonoSink<List<R>> sink) {
+            this.executor = executor;
+            this.elements = elements;
+            this.work = work;
+            this.sink = sink;
+            this.results = new AtomicReferenceArray<>(elements.size());
+            this.remaining = new AtomicInteger(elements.size());
+            this.subtasks = new AtomicReferenceArray<>(elements.size());
+        }
+
+        void start() {
+            sink.onCancel(this::shutdown);
+            for (int i = 0; i < subtasks.length() && !shutdown.get(); i++) {
+                int index = i;
+                try {
+                    subtasks.set(i, executor.submit(() -> run(index)));
+                } catch (RejectedExecutionException e) {
+                    fail(e);
+                }
+            }
+            // A failure may have happened before all the subtasks were submitted
+            if (shutdown.get()) {
+                cancelSubtasks();
+            }
+        }
+
+        void run(int index) {
+            if (shutdown.get()) {
+                return;
+            }
+            try {
+                results.set(index, work.apply(elements.get(index)));
+            } catch (Throwable t) {
+                Exceptions.throwIfJvmFatal(t);
+                fail(t);
+                return;
+            }
+            if (remaining.decrementAndGet() == 0) {
+                List<R> list = new ArrayList<>(results.length());
+                for (int i = 0; i < results.length(); i++) {
+                    list.add(results.get(i));
+                }
+                sink.success(list);
+            }
+        }
+
+        void fail(Throwable t) {
+            if (shutdown.compareAndSet(false, true)) {
+                cancelSubtasks();
+                sink.error(t);
+            }
+        }
+
+        void shutdown() {
+            if (shutdown.compareAndSet(false, true)) {
+                cancelSubtasks();
+            }
+        }
+
+        void cancelSubtasks() {
+            for (int i = 0; i < subtasks.length(); i++) {
+                Future<?> subtask = subtasks.get(i);
+                if (subtask != null) {
+                    subtask.cancel(true);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package net.eherrera.reactor.parallel;
+
+import net.eherrera.reactor.blocking.ByteBufferPool;
+import net.eherrera.reactor.blocking.Chunk;
+import net.eherrera.reactor.blocking.ChunkReader;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Counts the words of many files, a real version of fetchAndCountWords (Exercise01 of module 6):
+//     WordCounter.create().countWords(Flux.fromIterable(paths)).map(WordCounts::total)
+// Up to ioConcurrency files are read at once on boundedElastic, in chunks that end at a word
+// boundary (so no word is split between two chunks) from a pool of direct buffers. The chunks of
+// all the files are spread over the rails of a ParallelFlux on the parallel scheduler, every rail
+// counts into its own WordCounts with a byte-level scanner, and the rails are merged at the end.
+// Only a few chunks per rail and per file are in flight, so memory doesn't grow with the corpus.
+public final class WordCounter {
+    private static final int PREFETCH = 4;
+
+    private final int ioConcurrency;
+    private final int rails;
+    private final Scheduler scheduler;
+    private final ChunkReader reader;
+
+    private WordCounter(int ioConcurrency, int rails, ByteBufferPool pool, Scheduler scheduler) {
+        if (ioConcurrency < 1 || rails < 1) {
+            throw new IllegalArgumentException("Expected ioConcurrency >= 1 and rails >= 1, was "
+                    + ioConcurrency + " and " + rails);
+        }
+        this.ioConcurrency = ioConcurrency;
+        this.rails = rails;
+        this.scheduler = scheduler;
+        this.reader = ChunkReader.create(pool);
+    }
+
+    public static WordCounter create() {
+        return create(4, Schedulers.DEFAULT_POOL_SIZE);
+    }
+
+    // The pool keeps enough idle buffers for the chunks in flight
+    public static WordCounter create(int ioConcurrency, int rails) {
+        ByteBufferPool pool = ByteBufferPool.create(64 * 1024, (ioConcurrency + rails) * PREFETCH * 2);
+        return create(ioConcurrency, rails, pool, Schedulers.parallel());
+    }
+
+    // The size of the pool's buffers is the size of the chunks
+    public static WordCounter create(int ioConcurrency, int rails, ByteBufferPool pool, Scheduler scheduler) {
+        return new WordCounter(ioConcurrency, rails, pool, scheduler);
+    }
+
+    public Mono<WordCounts> countWords(Flux<Path> files) {
+        return Mono.defer(() -> {
+            // The chunks read and not scanned yet. parallel() clears its queue without discarding
+            // the elements when it's cancelled, so the ones left are released at the end
+            Set<Chunk> pending = ConcurrentHashMap.newKeySet();
+            return files
+                    .flatMap(file -> reader.readAligned(file, b -> !WordCounts.isWordByte(b)).doOnNext(pending::add),
+                            ioConcurrency, PREFETCH)
+                    .parallel(rails, PREFETCH)
+                    .runOn(scheduler, PREFETCH)
+                    .reduce(WordCounts::new, (counts, chunk) -> {
+                        // Otherwise it was already released by doFinally
+                        if (pending.remove(chunk)) {
+                            try {
+                                counts.scan(chunk.buffer());
+                            } finally {
+                                chunk.release();
+                            }
+                        }
+                        return counts;
+                    })
+                    .reduce(WordCounts::merge)
+                    .defaultIfEmpty(new WordCounts())
+                    // The chunks dropped by the other operators when it fails or is cancelled
+                    .doOnDiscard(Chunk.class, chunk -> {
+                        pending.remove(chunk);
+                        chunk.release();
+                    })
+                    .doFinally(signal -> pending.forEach(chunk -> {
+                        // Unless a rail took it meanwhile
+                        if (pending.remove(chunk)) {
+                            chunk.release();
+                        }
+                    }));
+        });
+    }
+
+    public Mono<Long> countWords(Path file) {
+        return countWords(Flux.just(file)).map(WordCounts::total);
+    }
+}
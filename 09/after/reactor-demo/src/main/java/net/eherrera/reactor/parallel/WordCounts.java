@@ -0,0 +1,199 @@
+package net.eherrera.reactor.parallel;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Word frequencies counted straight from bytes: a word is a run of ASCII letters and digits
+// (and bytes of non-ASCII UTF-8 characters), lowercased for ASCII. Everything else separates
+// words. The words are kept as bytes in an open-addressing table with primitive counters, no
+// String or boxed counter is created per word.
+// Not thread-safe: every rail of WordCounter fills its own, then they are merged.
+public final class WordCounts {
+    private static final boolean[] WORD = new boolean[256];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            WORD[b] = (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9') || b >= 0x80;
+        }
+    }
+
+    // Table slots: the offset of the word in bytes (-1 if empty), its length, hash and count
+    private int[] offsets;
+    private int[] lengths;
+    private int[] hashes;
+    private long[] counts;
+    private int mask;
+    private int distinct;
+    private long total;
+    // The bytes of every word, lowercased
+    private byte[] bytes = new byte[4096];
+    private int bytesLength;
+    // The word being scanned
+    private byte[] word = new byte[64];
+
+    public WordCounts() {
+        allocate(1024);
+    }
+
+    static boolean isWordByte(int b) {
+        return WORD[b & 0xff];
+    }
+
+    // Counts the words between the position and the limit of the buffer, without moving them
+    public WordCounts scan(ByteBuffer buffer) {
+        int length = 0;
+        int hash = 0;
+        for (int i = buffer.position(), n = buffer.limit(); i < n; i++) {
+            int b = buffer.get(i) & 0xff;
+            if (WORD[b]) {
+                if (b >= 'A' && b <= 'Z') {
+                    b += 'a' - 'A';
+                }
+                if (length == word.length) {
+                    word = Arrays.copyOf(word, length * 2);
+                }
+                word[length++] = (byte) b;
+                hash = 31 * hash + b;
+            } else if (length > 0) {
+                add(word, 0, length, hash, 1);
+                length = 0;
+                hash = 0;
+            }
+        }
+        if (length > 0) {
+            add(word, 0, length, hash, 1);
+        }
+        return this;
+    }
+
+    // Adds the counts of other to these
+    public WordCounts merge(WordCounts other) {
+        for (int slot = 0; slot < other.offsets.length; slot++) {
+            if (other.offsets[slot] >= 0) {
+                add(other.bytes, other.offsets[slot], other.lengths[slot], other.hashes[slot], other.counts[slot]);
+            }
+        }
+        return this;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public int distinct() {
+        return distinct;
+    }
+
+    // Lowercased like scan does, ASCII only, whatever the default locale
+    public long count(String word) {
+        byte[] lower = word.getBytes(StandardCharsets.UTF_8);
+        int hash = 0;
+        for (int i = 0; i < lower.length; i++) {
+            int b = lower[i] & 0xff;
+            if (b >= 'A' && b <= 'Z') {
+                b += 'a' - 'A';
+                lower[i] = (byte) b;
+            }
+            hash = 31 * hash + b;
+        }
+        int slot = find(lower, 0, lower.length, hash);
+        return offsets[slot] < 0 ? 0 : counts[slot];
+    }
+
+    // The n most frequent words, the most frequent first
+    public List<Map.Entry<String, Long>> top(int n) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(toMap().entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+        return entries.subList(0, Math.min(n, entries.size()));
+    }
+
+    public Map<String, Long> toMap() {
+        Map<String, Long> map = new HashMap<>(distinct * 2);
+        for (int slot = 0; slot < offsets.length; slot++) {
+            if (offsets[slot] >= 0) {
+                map.put(new String(bytes, offsets[slot], lengths[slot], StandardCharsets.UTF_8), counts[slot]);
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return "WordCounts{total=" + total + ", distinct=" + distinct + ", top=" + top(5) + '}';
+    }
+
+    private void add(byte[] source, int offset, int length, int hash, long count) {
+        int slot = find(source, offset, length, hash);
+        if (offsets[slot] < 0) {
+            if (bytesLength + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, bytesLength + length));
+            }
+            System.arraycopy(source, offset, bytes, bytesLength, length);
+            offsets[slot] = bytesLength;
+            lengths[slot] = length;
+            hashes[slot] = hash;
+            bytesLength += length;
+            distinct++;
+        }
+        counts[slot] += count;
+        total += count;
+        if (distinct * 2 > offsets.length) {
+            rehash();
+        }
+    }
+
+    // The slot of the word, or the empty slot where it goes
+    private int find(byte[] source, int offset, int length, int hash) {
+        int slot = mix(hash) & mask;
+        while (offsets[slot] >= 0) {
+            if (hashes[slot] == hash && lengths[slot] == length
+                    && Arrays.equals(bytes, offsets[slot], offsets[slot] + length, source, offset, offset + length)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        int[] oldOffsets = offsets;
+        int[] oldLengths = lengths;
+        int[] oldHashes = hashes;
+        long[] oldCounts = counts;
+        allocate(oldOffsets.length * 2);
+        for (int old = 0; old < oldOffsets.length; old++) {
+            if (oldOffsets[old] >= 0) {
+                int slot = mix(oldHashes[old]) & mask;
+                while (offsets[slot] >= 0) {
+                    slot = (slot + 1) & mask;
+                }
+                offsets[slot] = oldOffsets[old];
+                lengths[slot] = oldLengths[old];
+                hashes[slot] = oldHashes[old];
+                counts[slot] = oldCounts[old];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        offsets = new int[capacity];
+        Arrays.fill(offsets, -1);
+        lengths = new int[capacity];
+        hashes = new int[capacity];
+        counts = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    // Spreads the bits of the polynomial hash, it's weak in the low bits for short words
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,210 @@
+package net.eherrera.reactor.resilience;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Limits the calls in progress to one resource (a file system, a database) to maxConcurrent.
+// Up to maxQueued more calls wait for their turn, without blocking a thread, for at most maxWait;
+// anything else fails fast with a BulkheadFullException. A call isn't subscribed until it gets
+// its turn, so a blocking call offloaded with subscribeOn(boundedElastic()) doesn't take an
+// elastic thread while it waits:
+//     Mono.fromCallable(() -> readFile()).subscribeOn(Schedulers.boundedElastic())
+//             .transform(fileSystem.protectMono())
+// Use one instance per resource, shared by every pipeline calling it.
+// A cancelled call gives its permit back right away; if the blocking call doesn't stop when
+// cancelled, offload it with Interruptible so the resource is really free for the next one.
+public final class Bulkhead {
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final Duration maxWait;
+    private final Scheduler timer;
+    private final BulkheadFullException queueFull;
+    private final BulkheadFullException waitTimedOut;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+
+    private Bulkhead(String name, int maxConcurrent, int maxQueued, Duration maxWait, Scheduler timer) {
+        if (maxConcurrent < 1 || maxQueued < 0) {
+            throw new IllegalArgumentException("Expected maxConcurrent >= 1 and maxQueued >= 0, was "
+                    + maxConcurrent + " and " + maxQueued);
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWait = maxWait;
+        this.timer = timer;
+        this.queueFull = new BulkheadFullException("Bulkhead " + name + " is full");
+        this.waitTimedOut = new BulkheadFullException("Timed out waiting for bulkhead " + name);
+    }
+
+    public static Bulkhead create(String name, int maxConcurrent, int maxQueued, Duration maxWait) {
+        return create(name, maxConcurrent, maxQueued, maxWait, Schedulers.parallel());
+    }
+
+    public static Bulkhead create(String name, int maxConcurrent, int maxQueued, Duration maxWait, Scheduler timer) {
+        return new Bulkhead(name, maxConcurrent, maxQueued, maxWait, timer);
+    }
+
+    // Use with Mono.transform
+    // The permit is given back before the result goes downstream (unlike doFinally), so the next
+    // call can start, and the counters are up to date, by the time the caller sees the result
+    public <T> Function<Mono<T>, Mono<T>> protectMono() {
+        return mono -> acquire().flatMap(permit -> mono
+                .doOnTerminate(permit::release)
+                .doOnCancel(permit::release));
+    }
+
+    // Use with Flux.transform, the permit is held until the whole sequence terminates
+    public <T> Function<Flux<T>, Flux<T>> protect() {
+        return flux -> acquire().flatMapMany(permit -> flux
+                .doOnTerminate(permit::release)
+                .doOnCancel(permit::release));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    // Calls in progress
+    public int active() {
+        return active.get();
+    }
+
+    // Calls waiting for their turn
+    public int queued() {
+        return queued.get();
+    }
+
+    // Calls that found the wait queue full
+    public long rejected() {
+        return rejected.get();
+    }
+
+    // Calls that waited longer than maxWait
+    public long timedOut() {
+        return timedOut.get();
+    }
+
+    @Override
+    public String toString() {
+        return "Bulkhead(" + name + ", active=" + active.get() + "/" + maxConcurrent
+                + ", queued=" + queued.get() + "/" + maxQueued
+                + ", rejected=" + rejected.get()
+                + ", timedOut=" + timedOut.get() + ")";
+    }
+
+    private Mono<Permit> acquire() {
+        return Mono.defer(() -> {
+            if (tryAcquire()) {
+                return Mono.just(new Permit());
+            }
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                rejected.incrementAndGet();
+                return Mono.error(queueFull);
+            }
+            return Mono.<Permit>create(this::enqueue)
+                    .timeout(maxWait, Mono.defer(() -> {
+                        timedOut.incrementAndGet();
+                        return Mono.error(waitTimedOut);
+                    }), timer)
+                    // A permit granted right when the call is cancelled is given back
+                    .doOnDiscard(Permit.class, Permit::release);
+        });
+    }
+
+    private void enqueue(MonoSink<Permit> sink) {
+        Waiter waiter = new Waiter(sink);
+        sink.onCancel(waiter::cancel);
+        waiters.offer(waiter);
+        // A permit may have been released between tryAcquire and offer, with nobody to hand it to
+        if (tryAcquire()) {
+            if (waiter.grant()) {
+                waiters.remove(waiter);
+                sink.success(new Permit());
+            } else {
+                release();
+            }
+        }
+    }
+
+    private boolean tryAcquire() {
+        for (;;) {
+            int current = active.get();
+            if (current >= maxConcurrent) {
+                return false;
+            }
+            if (active.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Hands the permit to the first waiter still waiting, if any
+    private void release() {
+        for (;;) {
+            Waiter waiter;
+            while ((waiter = waiters.poll()) != null) {
+                if (waiter.grant()) {
+                    waiter.sink.success(new Permit());
+                    return;
+                }
+            }
+            active.decrementAndGet();
+            // A waiter may have been offered after the poll, its tryAcquire failing before the
+            // decrement: take the permit back for it, like enqueue does
+            if (waiters.isEmpty() || !tryAcquire()) {
+                return;
+            }
+        }
+    }
+
+    private final class Permit {
+        final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                Bulkhead.this.release();
+            }
+        }
+    }
+
+    private final class Waiter {
+        final MonoSink<Permit> sink;
+        final AtomicBoolean done = new AtomicBoolean();
+
+        Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+
+        boolean grant() {
+            if (done.compareAndSet(false, true)) {
+                queued.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        void cancel() {
+            if (done.compareAndSet(false, true)) {
+                queued.decrementAndGet();
+                waiters.remove(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package net.eherrera.reactor.resilience;
+
+import net.eherrera.reactor.error.ExpectedException;
+
+// Signaled instead of calling the resource when the bulkhead's wait queue is full,
+// or when a call waited longer than maxWait for its turn
+public class BulkheadFullException extends ExpectedException {
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package net.eherrera.reactor.resilience;
+
+import net.eherrera.reactor.error.ExpectedException;
+
+// Signaled instead of calling the backend while the circuit breaker is open
+public class CallNotPermittedException extends ExpectedException {
+    public CallNotPermittedException(String message) {
+        super(message);
+    }
+}
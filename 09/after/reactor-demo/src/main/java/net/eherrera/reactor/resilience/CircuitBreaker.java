@@ -0,0 +1,204 @@
+package net.eherrera.reactor.resilience;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+// Protects a backend: when too many of the recent calls failed or were slow, the breaker opens
+// and calls fail right away with a CallNotPermittedException (so onErrorResume can go straight
+// to the fallback). After openDuration, a few trial calls decide whether to close it again.
+// It's thread-safe and lock-free; share one instance between all the pipelines calling the same backend.
+public final class CircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final CircuitBreakerConfig config;
+    private final CallNotPermittedException notPermitted;
+    private final AtomicReference<Phase> phase;
+    private final AtomicLong notPermittedCalls = new AtomicLong();
+
+    private CircuitBreaker(String name, CircuitBreakerConfig config) {
+        this.name = name;
+        this.config = config;
+        this.notPermitted = new CallNotPermittedException("Circuit breaker " + name + " is open");
+        this.phase = new AtomicReference<>(closed());
+    }
+
+    public static CircuitBreaker create(String name) {
+        return create(name, CircuitBreakerConfig.defaults());
+    }
+
+    public static CircuitBreaker create(String name, CircuitBreakerConfig config) {
+        return new CircuitBreaker(name, config);
+    }
+
+    // Use with Mono.transform
+    public <T> Function<Mono<T>, Mono<T>> protectMono() {
+        return mono -> Mono.defer(() -> {
+            Phase permitted = acquirePermission();
+            if (permitted == null) {
+                return Mono.error(notPermitted);
+            }
+            long start = System.nanoTime();
+            return mono
+                    .doOnSuccess(v -> onResult(permitted, false, start))
+                    .doOnError(e -> onResult(permitted, config.recordFailure.test(e), start))
+                    .doOnCancel(() -> onCancel(permitted));
+        });
+    }
+
+    // Use with Flux.transform, the whole sequence counts as one call
+    public <T> Function<Flux<T>, Flux<T>> protect() {
+        return flux -> Flux.defer(() -> {
+            Phase permitted = acquirePermission();
+            if (permitted == null) {
+                return Flux.error(notPermitted);
+            }
+            long start = System.nanoTime();
+            return flux
+                    .doOnComplete(() -> onResult(permitted, false, start))
+                    .doOnError(e -> onResult(permitted, config.recordFailure.test(e), start))
+                    .doOnCancel(() -> onCancel(permitted));
+        });
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public State state() {
+        Phase current = phase.get();
+        if (current.state == State.OPEN && openDurationElapsed(current)) {
+            return State.HALF_OPEN;
+        }
+        return current.state;
+    }
+
+    public double failureRate() {
+        Phase current = phase.get();
+        return current.window == null ? 0 : current.window.failureRate();
+    }
+
+    public double slowCallRate() {
+        Phase current = phase.get();
+        return current.window == null ? 0 : current.window.slowCallRate();
+    }
+
+    public Duration averageLatency() {
+        Phase current = phase.get();
+        return Duration.ofNanos(current.window == null ? 0 : current.window.averageLatencyMicros() * 1000);
+    }
+
+    public long notPermittedCalls() {
+        return notPermittedCalls.get();
+    }
+
+    // Returns the phase the call was permitted in, or null if it's not permitted
+    private Phase acquirePermission() {
+        for (;;) {
+            Phase current = phase.get();
+            switch (current.state) {
+                case CLOSED:
+                    return current;
+                case OPEN:
+                    if (!openDurationElapsed(current)) {
+                        notPermittedCalls.incrementAndGet();
+                        return null;
+                    }
+                    phase.compareAndSet(current, halfOpen());
+                    continue;
+                default:
+                    if (current.permits.getAndDecrement() > 0) {
+                        return current;
+                    }
+                    current.permits.incrementAndGet();
+                    notPermittedCalls.incrementAndGet();
+                    return null;
+            }
+        }
+    }
+
+    private void onResult(Phase permitted, boolean failure, long start) {
+        long latency = System.nanoTime() - start;
+        boolean slow = latency >= config.slowCallDuration.toNanos();
+        // Outcomes of calls permitted in a previous phase don't count
+        if (phase.get() != permitted) {
+            return;
+        }
+        if (permitted.state == State.CLOSED) {
+            OutcomeWindow window = permitted.window;
+            window.record(failure, slow, latency);
+            if (window.calls() >= config.minimumCalls && exceedsThresholds(window.failureRate(), window.slowCallRate())) {
+                phase.compareAndSet(permitted, open());
+            }
+            return;
+        }
+        if (failure) {
+            permitted.trialFailures.incrementAndGet();
+        }
+        if (slow) {
+            permitted.trialSlowCalls.incrementAndGet();
+        }
+        int done = permitted.trialCalls.incrementAndGet();
+        if (done == config.halfOpenCalls) {
+            double failureRate = (double) permitted.trialFailures.get() / done;
+            double slowCallRate = (double) permitted.trialSlowCalls.get() / done;
+            phase.compareAndSet(permitted, exceedsThresholds(failureRate, slowCallRate) ? open() : closed());
+        }
+    }
+
+    // A cancelled trial call gives its permit back
+    private void onCancel(Phase permitted) {
+        if (permitted.state == State.HALF_OPEN) {
+            permitted.permits.incrementAndGet();
+        }
+    }
+
+    private boolean exceedsThresholds(double failureRate, double slowCallRate) {
+        return failureRate >= config.failureRateThreshold || slowCallRate >= config.slowCallRateThreshold;
+    }
+
+    private boolean openDurationElapsed(Phase open) {
+        return System.nanoTime() - open.since >= config.openDuration.toNanos();
+    }
+
+    private Phase closed() {
+        return new Phase(State.CLOSED, new OutcomeWindow(config.windowSize), 0);
+    }
+
+    private Phase open() {
+        return new Phase(State.OPEN, null, 0);
+    }
+
+    private Phase halfOpen() {
+        return new Phase(State.HALF_OPEN, null, config.halfOpenCalls);
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreaker(" + name + ", " + state() + ")";
+    }
+
+    private static final class Phase {
+        final State state;
+        final long since = System.nanoTime();
+        final OutcomeWindow window;
+        final AtomicInteger permits;
+        final AtomicInteger trialCalls = new AtomicInteger();
+        final AtomicInteger trialFailures = new AtomicInteger();
+        final AtomicInteger trialSlowCalls = new AtomicInteger();
+
+        Phase(State state, OutcomeWindow window, int permits) {
+            this.state = state;
+            this.window = window;
+            this.permits = new AtomicInteger(permits);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package net.eherrera.reactor.resilience;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+
+// Immutable, every method returns a new copy
+public final class CircuitBreakerConfig {
+    private static final CircuitBreakerConfig DEFAULTS = new CircuitBreakerConfig(100, 10, 0.5,
+            Duration.ofSeconds(5), 1.0, Duration.ofSeconds(30), 5, e -> true);
+
+    final int windowSize;
+    final int minimumCalls;
+    final double failureRateThreshold;
+    final Duration slowCallDuration;
+    final double slowCallRateThreshold;
+    final Duration openDuration;
+    final int halfOpenCalls;
+    final Predicate<? super Throwable> recordFailure;
+
+    private CircuitBreakerConfig(int windowSize, int minimumCalls, double failureRateThreshold,
+                                 Duration slowCallDuration, double slowCallRateThreshold,
+                                 Duration openDuration, int halfOpenCalls,
+                                 Predicate<? super Throwable> recordFailure) {
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallDuration = slowCallDuration;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openDuration = openDuration;
+        this.halfOpenCalls = halfOpenCalls;
+        this.recordFailure = recordFailure;
+    }
+
+    public static CircuitBreakerConfig defaults() {
+        return DEFAULTS;
+    }
+
+    // Number of recent calls the failure and slow call rates are computed from
+    public CircuitBreakerConfig windowSize(int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("windowSize must be strictly positive, was " + windowSize);
+        }
+        return new CircuitBreakerConfig(windowSize, Math.min(minimumCalls, windowSize), failureRateThreshold,
+                slowCallDuration, slowCallRateThreshold, openDuration, halfOpenCalls, recordFailure);
+    }
+
+    // The rates aren't checked until the window has this many calls
+    public CircuitBreakerConfig minimumCalls(int minimumCalls) {
+        if (minimumCalls <= 0 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("minimumCalls must be between 1 and " + windowSize + ", was " + minimumCalls);
+        }
+        return new CircuitBreakerConfig(windowSize, minimumCalls, failureRateThreshold,
+                slowCallDuration, slowCallRateThreshold, openDuration, halfOpenCalls, recordFailure);
+    }
+
+    public CircuitBreakerConfig failureRateThreshold(double failureRateThreshold) {
+        return new CircuitBreakerConfig(windowSize, minimumCalls, checkRate(failureRateThreshold),
+                slowCallDuration, slowCallRateThreshold, openDuration, halfOpenCalls, recordFailure);
+    }
+
+    public CircuitBreakerConfig slowCalls(Duration slowCallDuration, double slowCallRateThreshold) {
+        return new CircuitBreakerConfig(windowSize, minimumCalls, failureRateThreshold,
+                slowCallDuration, checkRate(slowCallRateThreshold), openDuration, halfOpenCalls, recordFailure);
+    }
+
+    // How long the breaker stays open before letting halfOpenCalls trial calls through
+    public CircuitBreakerConfig openDuration(Duration openDuration) {
+        return new CircuitBreakerConfig(windowSize, minimumCalls, failureRateThreshold,
+                slowCallDuration, slowCallRateThreshold, openDuration, halfOpenCalls, recordFailure);
+    }
+
+    public CircuitBreakerConfig halfOpenCalls(int halfOpenCalls) {
+        if (halfOpenCalls <= 0) {
+            throw new IllegalArgumentException("halfOpenCalls must be strictly positive, was " + halfOpenCalls);
+        }
+        return new CircuitBreakerConfig(windowSize, minimumCalls, failureRateThreshold,
+                slowCallDuration, slowCallRateThreshold, openDuration, halfOpenCalls, recordFailure);
+    }
+
+    // Errors that don't match are counted as successful calls
+    public CircuitBreakerConfig recordFailure(Predicate<? super Throwable> recordFailure) {
+        return new CircuitBreakerConfig(windowSize, minimumCalls, failureRateThreshold,
+                slowCallDuration, slowCallRateThreshold, openDuration, halfOpenCalls, recordFailure);
+    }
+
+    private static double checkRate(double rate) {
+        if (rate <= 0 || rate > 1) {
+            throw new IllegalArgumentException("Rate thresholds must be in (0, 1], was " + rate);
+        }
+        return rate;
+    }
+}
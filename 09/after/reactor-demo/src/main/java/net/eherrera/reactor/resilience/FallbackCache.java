@@ -0,0 +1,139 @@
+package net.eherrera.reactor.resilience;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Memoizes fallback values per key, so when many elements fail at once (an outage, for example)
+// the fallback is fetched once instead of once per element. Concurrent requests for a key that
+// is still loading share the same fetch.
+// After ttl, the stale value is still returned right away while a refresh runs in the background
+// on the given scheduler. If the refresh fails, the stale value is kept until the next attempt.
+// A failed first load isn't cached, the next request tries again.
+public final class FallbackCache<K, V> {
+    private final Function<? super K, ? extends Mono<V>> loader;
+    private final long ttlNanos;
+    private final Scheduler refreshScheduler;
+    private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+
+    private FallbackCache(Function<? super K, ? extends Mono<V>> loader, Duration ttl, Scheduler refreshScheduler) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive, was " + ttl);
+        }
+        this.loader = loader;
+        this.ttlNanos = ttl.toNanos();
+        this.refreshScheduler = refreshScheduler;
+    }
+
+    public static <K, V> FallbackCache<K, V> create(Function<? super K, ? extends Mono<V>> loader, Duration ttl) {
+        return create(loader, ttl, Schedulers.boundedElastic());
+    }
+
+    public static <K, V> FallbackCache<K, V> create(Function<? super K, ? extends Mono<V>> loader,
+                                                    Duration ttl,
+                                                    Scheduler refreshScheduler) {
+        return new FallbackCache<>(loader, ttl, refreshScheduler);
+    }
+
+    public Mono<V> get(K key) {
+        return Mono.defer(() -> {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                entry = entries.computeIfAbsent(key, this::load);
+            } else {
+                hits.incrementAndGet();
+                if (entry.isExpired() && entry.refreshing.compareAndSet(false, true)) {
+                    refresh(key, entry);
+                }
+            }
+            return entry.value;
+        });
+    }
+
+    // Use with Mono.transform instead of onErrorResume(type, e -> fallback)
+    public <E extends Throwable> Function<Mono<V>, Mono<V>> onErrorResumeMono(Class<E> type, K key) {
+        return mono -> mono.onErrorResume(type, e -> get(key));
+    }
+
+    // Use with Flux.transform instead of onErrorResume(type, e -> fallback)
+    public <E extends Throwable> Function<Flux<V>, Flux<V>> onErrorResume(Class<E> type, K key) {
+        return flux -> flux.onErrorResume(type, e -> get(key));
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    // Number of times the loader was called for a key that wasn't cached
+    public long loads() {
+        return loads.get();
+    }
+
+    // Number of background refreshes started
+    public long refreshes() {
+        return refreshes.get();
+    }
+
+    // Number of requests served by an existing entry
+    public long hits() {
+        return hits.get();
+    }
+
+    @Override
+    public String toString() {
+        return "FallbackCache{keys=" + entries.size()
+                + ", loads=" + loads.get()
+                + ", refreshes=" + refreshes.get()
+                + ", hits=" + hits.get() + '}';
+    }
+
+    private Entry<V> load(K key) {
+        Entry<V> entry = new Entry<>();
+        entry.value = Mono.<V>defer(() -> {
+                    loads.incrementAndGet();
+                    return loader.apply(key);
+                })
+                .doOnSuccess(v -> entry.expiresAt = System.nanoTime() + ttlNanos)
+                .doOnError(e -> entries.remove(key, entry))
+                .cache();
+        return entry;
+    }
+
+    private void refresh(K key, Entry<V> stale) {
+        refreshes.incrementAndGet();
+        Mono.defer(() -> loader.apply(key))
+                .subscribeOn(refreshScheduler)
+                .subscribe(
+                        v -> {
+                            Entry<V> fresh = new Entry<>();
+                            fresh.value = Mono.just(v);
+                            fresh.expiresAt = System.nanoTime() + ttlNanos;
+                            entries.replace(key, stale, fresh);
+                        },
+                        e -> stale.refreshing.set(false),
+                        () -> stale.refreshing.set(false));
+    }
+
+    private static final class Entry<V> {
+        Mono<V> value;
+        // Long.MAX_VALUE while the first load is in flight
+        volatile long expiresAt = Long.MAX_VALUE;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        boolean isExpired() {
+            long deadline = expiresAt;
+            return deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package net.eherrera.reactor.resilience;
+
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Runs one call per key at a time: a request for a key that is already in flight joins that
+// call and gets its result (or error) too, instead of starting another one. For lists of URLs
+// with many repeated ones:
+//     urls.transform(InFlightCalls.flatMapDistinctKey(url -> url, url -> fetch(url), 8))
+// or, to share the calls between streams, InFlightCalls.create(url -> fetch(url)).get(url).
+// Nothing is cached: a key is forgotten as soon as its call terminates, so the memory is bounded
+// by the keys in flight, and a later request for it starts a new call. The call is cancelled
+// when every request waiting for it is cancelled.
+// In flatMap, a request that joins a call still takes one of the concurrency slots.
+public final class InFlightCalls<K, V> {
+    private final Function<? super K, ? extends Mono<V>> loader;
+    private final ConcurrentMap<K, Call<V>> calls = new ConcurrentHashMap<>();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong joined = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+
+    private InFlightCalls(Function<? super K, ? extends Mono<V>> loader) {
+        this.loader = loader;
+    }
+
+    public static <K, V> InFlightCalls<K, V> create(Function<? super K, ? extends Mono<V>> loader) {
+        return new InFlightCalls<>(loader);
+    }
+
+    // Like flatMap(mapper), with the calls shared by the elements with the same key while they're in flight
+    public static <T, K, V> Function<Flux<T>, Flux<V>> flatMapDistinctKey(Function<? super T, ? extends K> keyFn,
+                                                                         Function<? super T, ? extends Mono<V>> mapper) {
+        return flatMapDistinctKey(keyFn, mapper, Queues.SMALL_BUFFER_SIZE);
+    }
+
+    public static <T, K, V> Function<Flux<T>, Flux<V>> flatMapDistinctKey(Function<? super T, ? extends K> keyFn,
+                                                                         Function<? super T, ? extends Mono<V>> mapper,
+                                                                         int concurrency) {
+        return flux -> Flux.defer(() -> {
+            // One per subscription
+            InFlightCalls<K, V> calls = new InFlightCalls<>(null);
+            return flux.flatMap(element -> calls.join(keyFn.apply(element), () -> mapper.apply(element)), concurrency);
+        });
+    }
+
+    public Mono<V> get(K key) {
+        return join(key, () -> loader.apply(key));
+    }
+
+    // Like flatMap(element -> get(keyFn.apply(element)), concurrency)
+    public <T> Function<Flux<T>, Flux<V>> flatMap(Function<? super T, ? extends K> keyFn, int concurrency) {
+        return flux -> flux.flatMap(element -> get(keyFn.apply(element)), concurrency);
+    }
+
+    // Calls started, every other request joined one of them
+    public long started() {
+        return started.get();
+    }
+
+    public long joined() {
+        return joined.get();
+    }
+
+    // Calls cancelled because nobody was waiting for them anymore
+    public long cancelled() {
+        return cancelled.get();
+    }
+
+    public int inFlight() {
+        return calls.size();
+    }
+
+    @Override
+    public String toString() {
+        return "InFlightCalls{inFlight=" + calls.size()
+                + ", started=" + started.get()
+                + ", joined=" + joined.get()
+                + ", cancelled=" + cancelled.get() + '}';
+    }
+
+    private Mono<V> join(K key, Supplier<? extends Mono<V>> source) {
+        return Mono.deferContextual(context -> {
+            Call<V> call = calls.compute(key, (k, existing) -> {
+                Call<V> c = existing == null ? new Call<>() : existing;
+                c.waiting++;
+                return c;
+            });
+            // The first request to get here starts it, with its Context
+            if (call.started.compareAndSet(false, true)) {
+                started.incrementAndGet();
+                call.upstream.update(Mono.defer(source)
+                        .contextWrite(context)
+                        // Removed before the result is emitted: whoever comes after it starts a new call
+                        .subscribe(
+                                v -> {
+                                    calls.remove(key, call);
+                                    call.result.tryEmitValue(v);
+                                },
+                                e -> {
+                                    calls.remove(key, call);
+                                    call.result.tryEmitError(e);
+                                },
+                                () -> {
+                                    calls.remove(key, call);
+                                    call.result.tryEmitEmpty();
+                                }));
+            } else {
+                joined.incrementAndGet();
+            }
+            return call.result.asMono().doOnCancel(() -> leave(key, call));
+        });
+    }
+
+    private void leave(K key, Call<V> call) {
+        AtomicBoolean last = new AtomicBoolean();
+        calls.computeIfPresent(key, (k, c) -> {
+            if (c != call || --c.waiting > 0) {
+                return c;
+            }
+            last.set(true);
+            return null;
+        });
+        // Outside of compute, cancelling can run any code
+        if (last.get()) {
+            cancelled.incrementAndGet();
+            call.upstream.dispose();
+        }
+    }
+
+    private static final class Call<V> {
+        final Sinks.One<V> result = Sinks.one();
+        // Disposing it before the call is subscribed cancels it as soon as it is
+        final Disposable.Swap upstream = Disposables.swap();
+        final AtomicBoolean started = new AtomicBoolean();
+        // The requests not cancelled, only changed in calls.compute
+        int waiting;
+    }
+}
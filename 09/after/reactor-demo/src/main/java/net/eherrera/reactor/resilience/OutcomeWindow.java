@@ -0,0 +1,67 @@
+package net.eherrera.reactor.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lock-free ring buffer with the outcome of the last calls. Every slot packs the outcome flags
+// and the latency in a long; the aggregates are updated with the difference between the new
+// outcome and the one it overwrites, so reading them is O(1).
+final class OutcomeWindow {
+    private static final long PRESENT = 1;
+    private static final long FAILURE = 2;
+    private static final long SLOW = 4;
+    private static final int LATENCY_SHIFT = 3;
+    private static final long MAX_LATENCY_MICROS = Long.MAX_VALUE >>> LATENCY_SHIFT;
+
+    private final AtomicLongArray slots;
+    private final AtomicLong index = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger slowCalls = new AtomicInteger();
+    private final AtomicLong totalLatencyMicros = new AtomicLong();
+
+    OutcomeWindow(int size) {
+        this.slots = new AtomicLongArray(size);
+    }
+
+    void record(boolean failure, boolean slow, long latencyNanos) {
+        long latencyMicros = Math.min(MAX_LATENCY_MICROS, Math.max(0, latencyNanos / 1000));
+        long outcome = PRESENT
+                | (failure ? FAILURE : 0)
+                | (slow ? SLOW : 0)
+                | (latencyMicros << LATENCY_SHIFT);
+        int slot = (int) (index.getAndIncrement() % slots.length());
+        long previous = slots.getAndSet(slot, outcome);
+
+        if ((previous & PRESENT) == 0) {
+            calls.incrementAndGet();
+        }
+        failures.addAndGet(flag(outcome, FAILURE) - flag(previous, FAILURE));
+        slowCalls.addAndGet(flag(outcome, SLOW) - flag(previous, SLOW));
+        totalLatencyMicros.addAndGet(latencyMicros - (previous >>> LATENCY_SHIFT));
+    }
+
+    int calls() {
+        return calls.get();
+    }
+
+    double failureRate() {
+        int c = calls.get();
+        return c == 0 ? 0 : (double) failures.get() / c;
+    }
+
+    double slowCallRate() {
+        int c = calls.get();
+        return c == 0 ? 0 : (double) slowCalls.get() / c;
+    }
+
+    long averageLatencyMicros() {
+        int c = calls.get();
+        return c == 0 ? 0 : totalLatencyMicros.get() / c;
+    }
+
+    private static int flag(long outcome, long flag) {
+        return (outcome & flag) != 0 ? 1 : 0;
+    }
+}
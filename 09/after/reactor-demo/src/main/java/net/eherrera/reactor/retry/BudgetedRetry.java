@@ -0,0 +1,85 @@
+package net.eherrera.reactor.retry;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+// Exponential backoff with decorrelated jitter: every delay is random between minBackoff and
+// three times the previous delay, capped at maxBackoff. Every retry has to be paid for with a
+// token of the (shared) RetryBudget; when there are none left, the failure is propagated.
+// Like Reactor's RetryBackoffSpec, it's immutable, every method returns a new copy. Use it with retryWhen:
+//     flux.retryWhen(BudgetedRetry.decorrelatedJitter(3, Duration.ofMillis(100)).budget(budget))
+public final class BudgetedRetry extends Retry {
+    private final long maxAttempts;
+    private final Duration minBackoff;
+    private final Duration maxBackoff;
+    private final RetryBudget budget;
+    private final Predicate<? super Throwable> filter;
+    private final Scheduler scheduler;
+
+    private BudgetedRetry(long maxAttempts, Duration minBackoff, Duration maxBackoff, RetryBudget budget,
+                          Predicate<? super Throwable> filter, Scheduler scheduler) {
+        this.maxAttempts = maxAttempts;
+        this.minBackoff = minBackoff;
+        this.maxBackoff = maxBackoff;
+        this.budget = budget;
+        this.filter = filter;
+        this.scheduler = scheduler;
+    }
+
+    public static BudgetedRetry decorrelatedJitter(long maxAttempts, Duration minBackoff) {
+        return new BudgetedRetry(maxAttempts, minBackoff, Duration.ofSeconds(30),
+                RetryBudget.create(0.1), e -> true, Schedulers.parallel());
+    }
+
+    public BudgetedRetry maxBackoff(Duration maxBackoff) {
+        return new BudgetedRetry(maxAttempts, minBackoff, maxBackoff, budget, filter, scheduler);
+    }
+
+    public BudgetedRetry budget(RetryBudget budget) {
+        return new BudgetedRetry(maxAttempts, minBackoff, maxBackoff, budget, filter, scheduler);
+    }
+
+    public BudgetedRetry filter(Predicate<? super Throwable> filter) {
+        return new BudgetedRetry(maxAttempts, minBackoff, maxBackoff, budget, filter, scheduler);
+    }
+
+    public BudgetedRetry scheduler(Scheduler scheduler) {
+        return new BudgetedRetry(maxAttempts, minBackoff, maxBackoff, budget, filter, scheduler);
+    }
+
+    public RetryBudget budget() {
+        return budget;
+    }
+
+    // Called once per subscription, that is, once per call (retries resubscribe without calling it again)
+    @Override
+    public Publisher<?> generateCompanion(Flux<RetrySignal> retrySignals) {
+        budget.deposit();
+        long[] previousDelay = {minBackoff.toMillis()};
+        return retrySignals.concatMap(signal -> {
+            Throwable failure = signal.failure();
+            // totalRetries, not totalRetriesInARow: that one restarts at every onNext, so a Flux
+            // that emits before failing would never reach maxAttempts
+            if (signal.totalRetries() >= maxAttempts || !filter.test(failure) || !budget.tryWithdraw()) {
+                return Mono.error(failure);
+            }
+            previousDelay[0] = nextDelay(previousDelay[0]);
+            return Mono.delay(Duration.ofMillis(previousDelay[0]), scheduler);
+        });
+    }
+
+    long nextDelay(long previousDelay) {
+        long min = minBackoff.toMillis();
+        long upper = Math.max(min, previousDelay * 3);
+        long delay = upper > min ? ThreadLocalRandom.current().nextLong(min, upper + 1) : min;
+        return Math.min(maxBackoff.toMillis(), delay);
+    }
+}
@@ -0,0 +1,87 @@
+package net.eherrera.reactor.retry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// A token bucket shared by every pipeline calling the same backend.
+// Each call deposits retryRatio tokens and each retry withdraws one, so over time retries can't
+// go over retryRatio of the calls (0.1 = 10%), no matter how many calls fail during an outage.
+// initialRetries lets the first failures retry before enough calls have been made.
+public final class RetryBudget {
+    // Tokens are stored in thousandths so fractional deposits don't get lost
+    private static final long SCALE = 1000;
+
+    private final long depositPerCall;
+    private final long maxBalance;
+    private final AtomicLong balance;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+
+    private RetryBudget(double retryRatio, int initialRetries, int maxRetries) {
+        if (retryRatio < 0) {
+            throw new IllegalArgumentException("retryRatio must be positive, was " + retryRatio);
+        }
+        if (initialRetries < 0 || maxRetries < initialRetries) {
+            throw new IllegalArgumentException("Expected 0 <= initialRetries <= maxRetries, was "
+                    + initialRetries + " and " + maxRetries);
+        }
+        this.depositPerCall = Math.round(retryRatio * SCALE);
+        this.maxBalance = maxRetries * SCALE;
+        this.balance = new AtomicLong(initialRetries * SCALE);
+    }
+
+    public static RetryBudget create(double retryRatio) {
+        return create(retryRatio, 10, 100);
+    }
+
+    public static RetryBudget create(double retryRatio, int initialRetries, int maxRetries) {
+        return new RetryBudget(retryRatio, initialRetries, maxRetries);
+    }
+
+    void deposit() {
+        calls.incrementAndGet();
+        long current;
+        do {
+            current = balance.get();
+            if (current >= maxBalance) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(maxBalance, current + depositPerCall)));
+    }
+
+    boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                exhausted.incrementAndGet();
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        retries.incrementAndGet();
+        return true;
+    }
+
+    public long calls() {
+        return calls.get();
+    }
+
+    public long retries() {
+        return retries.get();
+    }
+
+    // How many retries were denied because the budget was empty
+    public long exhausted() {
+        return exhausted.get();
+    }
+
+    public long availableRetries() {
+        return balance.get() / SCALE;
+    }
+
+    @Override
+    public String toString() {
+        return "RetryBudget{calls=" + calls() + ", retries=" + retries()
+                + ", exhausted=" + exhausted() + ", available=" + availableRetries() + "}";
+    }
+}
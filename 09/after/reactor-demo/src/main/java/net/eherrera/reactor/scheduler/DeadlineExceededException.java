@@ -0,0 +1,7 @@
+package net.eherrera.reactor.scheduler;
+
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,476 @@
+package net.eherrera.reactor.scheduler;
+
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// A Scheduler that runs its tasks earliest-deadline-first instead of FIFO.
+// Every task gets a deadline: the one taken from the Context (DEADLINE_KEY) or, if there's none,
+// a virtual deadline of "enqueue time + priority * agingStep". Because the virtual deadline is
+// fixed at enqueue time, a waiting low-priority task eventually wins against newer urgent ones,
+// so it can't starve.
+public final class PriorityScheduler implements Scheduler {
+    public static final String PRIORITY_KEY = "scheduler.priority";
+    public static final String DEADLINE_KEY = "scheduler.deadline";
+
+    // 0 is the most urgent priority
+    public static final int HIGHEST_PRIORITY = 0;
+    public static final int DEFAULT_PRIORITY = 5;
+
+    public enum LatePolicy {
+        // Late tasks still run, they are only counted
+        FLAG,
+        // Late subscriptions are replaced by a DeadlineExceededException
+        DROP
+    }
+
+    private final String name;
+    private final long agingStepNanos;
+    private final LatePolicy latePolicy;
+    private final PriorityBlockingQueue<PrioritizedTask> queue = new PriorityBlockingQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong lateTasks = new AtomicLong();
+    private final AtomicLong droppedTasks = new AtomicLong();
+    private final Thread[] threads;
+    private final ScheduledExecutorService timer;
+    private volatile boolean disposed;
+
+    private PriorityScheduler(String name, int parallelism, Duration agingStep, LatePolicy latePolicy) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be strictly positive, was " + parallelism);
+        }
+        this.name = name;
+        this.agingStepNanos = agingStep.toNanos();
+        this.latePolicy = latePolicy;
+        this.threads = new Thread[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            Thread thread = new Thread(this::runLoop, name + "-" + (i + 1));
+            thread.setDaemon(true);
+            threads[i] = thread;
+        }
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name + "-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (Thread thread : threads) {
+            thread.start();
+        }
+    }
+
+    public static PriorityScheduler create(String name, int parallelism) {
+        return create(name, parallelism, Duration.ofMillis(10), LatePolicy.FLAG);
+    }
+
+    public static PriorityScheduler create(String name, int parallelism, Duration agingStep, LatePolicy latePolicy) {
+        return new PriorityScheduler(name, parallelism, agingStep, latePolicy);
+    }
+
+    public static Context priority(int priority) {
+        return Context.of(PRIORITY_KEY, priority);
+    }
+
+    public static Context deadline(Instant deadline) {
+        return Context.of(DEADLINE_KEY, deadline);
+    }
+
+    // The deadline is now + timeout, computed when the Context is built, not when it's subscribed:
+    // build it for every subscription, a reused Context keeps the same (eventually past) deadline
+    public static Context deadline(Duration timeout) {
+        return deadline(Instant.now().plus(timeout));
+    }
+
+    // A view of this scheduler whose tasks carry the given priority and optional deadline
+    public Scheduler withPriority(int priority, Instant deadline) {
+        if (priority < HIGHEST_PRIORITY) {
+            throw new IllegalArgumentException("priority must be >= 0, was " + priority);
+        }
+        return new TaggedScheduler(priority, deadline == null ? Long.MIN_VALUE : toNanoTime(deadline));
+    }
+
+    public Scheduler forContext(ContextView ctx) {
+        int priority = ctx.getOrDefault(PRIORITY_KEY, DEFAULT_PRIORITY);
+        Instant deadline = ctx.getOrDefault(DEADLINE_KEY, null);
+        return withPriority(priority, deadline);
+    }
+
+    // Use with Flux.transform: subscribes on this scheduler using the priority and deadline of the subscriber's Context
+    public <T> Function<Flux<T>, Flux<T>> subscribeOn() {
+        return flux -> Flux.deferContextual(ctx ->
+                Flux.defer(() -> {
+                    Optional<DeadlineExceededException> late = checkDeadline(ctx);
+                    return late.isPresent() ? Flux.<T>error(late.get()) : flux;
+                })
+                .subscribeOn(forContext(ctx))
+        );
+    }
+
+    public <T> Function<Mono<T>, Mono<T>> subscribeOnMono() {
+        return mono -> Mono.deferContextual(ctx ->
+                Mono.defer(() -> {
+                    Optional<DeadlineExceededException> late = checkDeadline(ctx);
+                    return late.isPresent() ? Mono.<T>error(late.get()) : mono;
+                })
+                .subscribeOn(forContext(ctx))
+        );
+    }
+
+    // Use with Flux.transform: publishes on this scheduler using the priority and deadline of the subscriber's Context
+    public <T> Function<Flux<T>, Flux<T>> publishOn() {
+        return flux -> Flux.deferContextual(ctx -> flux.publishOn(forContext(ctx)));
+    }
+
+    public long lateTasks() {
+        return lateTasks.get();
+    }
+
+    public long droppedTasks() {
+        return droppedTasks.get();
+    }
+
+    public int pendingTasks() {
+        return queue.size();
+    }
+
+    @Override
+    public Disposable schedule(Runnable task) {
+        return enqueue(task, DEFAULT_PRIORITY, Long.MIN_VALUE);
+    }
+
+    @Override
+    public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+        return scheduleDelayed(task, DEFAULT_PRIORITY, Long.MIN_VALUE, delay, unit);
+    }
+
+    @Override
+    public Disposable schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return schedulePeriodically(task, DEFAULT_PRIORITY, Long.MIN_VALUE, initialDelay, period, unit);
+    }
+
+    @Override
+    public Worker createWorker() {
+        return new PriorityWorker(DEFAULT_PRIORITY, Long.MIN_VALUE);
+    }
+
+    @Override
+    public void dispose() {
+        if (disposed) {
+            return;
+        }
+        disposed = true;
+        timer.shutdownNow();
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        queue.clear();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    @Override
+    public String toString() {
+        return "PriorityScheduler(\"" + name + "\", " + threads.length + ")";
+    }
+
+    private Optional<DeadlineExceededException> checkDeadline(ContextView ctx) {
+        Optional<Instant> deadline = ctx.getOrEmpty(DEADLINE_KEY);
+        if (latePolicy == LatePolicy.DROP && deadline.isPresent() && Instant.now().isAfter(deadline.get())) {
+            droppedTasks.incrementAndGet();
+            return Optional.of(new DeadlineExceededException(
+                    "Deadline " + deadline.get() + " exceeded before running on " + name));
+        }
+        return Optional.empty();
+    }
+
+    private static long toNanoTime(Instant deadline) {
+        return System.nanoTime() + Duration.between(Instant.now(), deadline).toNanos();
+    }
+
+    private long effectiveDeadline(int priority, long deadlineNanos) {
+        if (deadlineNanos != Long.MIN_VALUE) {
+            return deadlineNanos;
+        }
+        return System.nanoTime() + priority * agingStepNanos;
+    }
+
+    private Disposable enqueue(Runnable task, int priority, long deadlineNanos) {
+        if (disposed) {
+            throw Exceptions.failWithRejected();
+        }
+        PrioritizedTask prioritizedTask = new PrioritizedTask(task,
+                effectiveDeadline(priority, deadlineNanos),
+                deadlineNanos != Long.MIN_VALUE,
+                sequence.getAndIncrement());
+        queue.offer(prioritizedTask);
+        return prioritizedTask;
+    }
+
+    private Disposable scheduleDelayed(Runnable task, int priority, long deadlineNanos, long delay, TimeUnit unit) {
+        if (disposed) {
+            throw Exceptions.failWithRejected();
+        }
+        DelayedTask delayedTask = new DelayedTask();
+        delayedTask.future = timer.schedule(() -> {
+            if (!delayedTask.isDisposed()) {
+                delayedTask.enqueued = enqueue(task, priority, deadlineNanos);
+            }
+        }, delay, unit);
+        return delayedTask;
+    }
+
+    private Disposable schedulePeriodically(Runnable task, int priority, long deadlineNanos,
+                                            long initialDelay, long period, TimeUnit unit) {
+        if (disposed) {
+            throw Exceptions.failWithRejected();
+        }
+        AtomicBoolean running = new AtomicBoolean();
+        Runnable guarded = () -> {
+            try {
+                task.run();
+            } finally {
+                running.set(false);
+            }
+        };
+        DelayedTask delayedTask = new DelayedTask();
+        delayedTask.future = timer.scheduleAtFixedRate(() -> {
+            // A slow periodic task never overlaps with itself
+            if (!delayedTask.isDisposed() && running.compareAndSet(false, true)) {
+                delayedTask.enqueued = enqueue(guarded, priority, deadlineNanos);
+            }
+        }, initialDelay, period, unit);
+        return delayedTask;
+    }
+
+    private void runLoop() {
+        while (!disposed) {
+            PrioritizedTask task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (task.isDisposed()) {
+                continue;
+            }
+            if (task.hardDeadline && System.nanoTime() > task.deadlineNanos) {
+                lateTasks.incrementAndGet();
+            }
+            try {
+                task.run();
+            } catch (Throwable t) {
+                Exceptions.throwIfJvmFatal(t);
+                Operators.onErrorDropped(t, Context.empty());
+            }
+        }
+    }
+
+    private static final class PrioritizedTask implements Runnable, Disposable, Comparable<PrioritizedTask> {
+        final Runnable task;
+        final long deadlineNanos;
+        final boolean hardDeadline;
+        final long sequence;
+        volatile boolean disposed;
+
+        PrioritizedTask(Runnable task, long deadlineNanos, boolean hardDeadline, long sequence) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+            this.hardDeadline = hardDeadline;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask other) {
+            // Subtraction keeps the comparison correct if nanoTime overflows
+            long diff = deadlineNanos - other.deadlineNanos;
+            if (diff != 0) {
+                return diff < 0 ? -1 : 1;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    private static final class DelayedTask implements Disposable {
+        volatile ScheduledFuture<?> future;
+        volatile Disposable enqueued;
+        volatile boolean disposed;
+
+        @Override
+        public void dispose() {
+            disposed = true;
+            ScheduledFuture<?> f = future;
+            if (f != null) {
+                f.cancel(false);
+            }
+            Disposable d = enqueued;
+            if (d != null) {
+                d.dispose();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    private final class TaggedScheduler implements Scheduler {
+        final int priority;
+        final long deadlineNanos;
+
+        TaggedScheduler(int priority, long deadlineNanos) {
+            this.priority = priority;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public Disposable schedule(Runnable task) {
+            return enqueue(task, priority, deadlineNanos);
+        }
+
+        @Override
+        public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+            return scheduleDelayed(task, priority, deadlineNanos, delay, unit);
+        }
+
+        @Override
+        public Disposable schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+            return PriorityScheduler.this.schedulePeriodically(task, priority, deadlineNanos, initialDelay, period, unit);
+        }
+
+        @Override
+        public Worker createWorker() {
+            return new PriorityWorker(priority, deadlineNanos);
+        }
+
+        // The view doesn't own any thread, disposing it doesn't affect the parent scheduler
+        @Override
+        public void dispose() {
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    // Runs its tasks one at a time and in order, each one competing for a thread with the worker's priority
+    private final class PriorityWorker implements Worker {
+        final int priority;
+        final long deadlineNanos;
+        final Queue<PrioritizedTask> tasks = new ConcurrentLinkedQueue<>();
+        final AtomicInteger wip = new AtomicInteger();
+        volatile boolean workerDisposed;
+
+        PriorityWorker(int priority, long deadlineNanos) {
+            this.priority = priority;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public Disposable schedule(Runnable task) {
+            if (workerDisposed) {
+                throw Exceptions.failWithRejected();
+            }
+            PrioritizedTask workerTask = new PrioritizedTask(task, 0, false, 0);
+            tasks.offer(workerTask);
+            if (wip.getAndIncrement() == 0) {
+                enqueue(this::runNext, priority, deadlineNanos);
+            }
+            return workerTask;
+        }
+
+        @Override
+        public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+            if (workerDisposed) {
+                throw Exceptions.failWithRejected();
+            }
+            DelayedTask delayedTask = new DelayedTask();
+            delayedTask.future = timer.schedule(() -> {
+                if (!delayedTask.isDisposed() && !workerDisposed) {
+                    delayedTask.enqueued = schedule(task);
+                }
+            }, delay, unit);
+            return delayedTask;
+        }
+
+        @Override
+        public Disposable schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+            if (workerDisposed) {
+                throw Exceptions.failWithRejected();
+            }
+            DelayedTask delayedTask = new DelayedTask();
+            delayedTask.future = timer.scheduleAtFixedRate(() -> {
+                if (!delayedTask.isDisposed() && !workerDisposed) {
+                    schedule(task);
+                }
+            }, initialDelay, period, unit);
+            return delayedTask;
+        }
+
+        // Runs a single task and gives the thread back, so more urgent work can go first
+        void runNext() {
+            PrioritizedTask task = tasks.poll();
+            if (task != null && !task.isDisposed() && !workerDisposed) {
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    Exceptions.throwIfJvmFatal(t);
+                    Operators.onErrorDropped(t, Context.empty());
+                }
+            }
+            if (wip.decrementAndGet() != 0 && !workerDisposed && !disposed) {
+                enqueue(this::runNext, priority, deadlineNanos);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            workerDisposed = true;
+            tasks.clear();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return workerDisposed;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package net.eherrera.reactor.scheduler;
+
+import reactor.core.Disposable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.Logger;
+import reactor.util.Loggers;
+
+import java.lang.ref.Cleaner;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Hands out reference-counted handles to named schedulers, so every assembly that asks for
+// "singleScheduler" shares the same thread instead of creating (and leaking) a new one.
+// Disposing a handle releases one reference; when the last one is released, the scheduler is
+// disposed after idleTimeout unless somebody acquires it again in the meantime.
+// A handle that becomes unreachable without being disposed is reported as a leak and released.
+public final class SchedulerRegistry {
+    private static final Logger log = Loggers.getLogger(SchedulerRegistry.class);
+    private static final Cleaner CLEANER = Cleaner.create();
+    // One thread for the idle reclaims of every registry, it only runs short tasks
+    private static final ScheduledThreadPoolExecutor REAPER = createReaper();
+    private static final SchedulerRegistry SHARED = new SchedulerRegistry(Duration.ofSeconds(60),
+            Boolean.getBoolean("net.eherrera.reactor.scheduler.recordAcquisitionSites"));
+
+    public interface Listener {
+        default void onCreated(String name, Scheduler scheduler) {
+        }
+
+        default void onReclaimed(String name) {
+        }
+
+        // acquisitionSite is null unless the registry records acquisition sites
+        default void onLeak(String name, Throwable acquisitionSite) {
+        }
+    }
+
+    private final Duration idleTimeout;
+    private final boolean recordAcquisitionSites;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong leaks = new AtomicLong();
+
+    public SchedulerRegistry(Duration idleTimeout, boolean recordAcquisitionSites) {
+        this.idleTimeout = idleTimeout;
+        this.recordAcquisitionSites = recordAcquisitionSites;
+    }
+
+    private static ScheduledThreadPoolExecutor createReaper() {
+        ScheduledThreadPoolExecutor reaper = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "scheduler-registry-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Reclaims are cancelled whenever a scheduler is acquired again, don't keep them queued
+        reaper.setRemoveOnCancelPolicy(true);
+        return reaper;
+    }
+
+    public static SchedulerRegistry shared() {
+        return SHARED;
+    }
+
+    public Scheduler single(String name) {
+        return acquire(name, "single", () -> Schedulers.newSingle(name, true));
+    }
+
+    public Scheduler parallel(String name) {
+        return parallel(name, Schedulers.DEFAULT_POOL_SIZE);
+    }
+
+    public Scheduler parallel(String name, int parallelism) {
+        return acquire(name, "parallel(" + parallelism + ")",
+                () -> Schedulers.newParallel(name, parallelism, true));
+    }
+
+    public Scheduler boundedElastic(String name) {
+        return boundedElastic(name, Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+                Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, 60);
+    }
+
+    public Scheduler boundedElastic(String name, int threadCap, int queuedTaskCap, int ttlSeconds) {
+        return acquire(name, "boundedElastic(" + threadCap + ", " + queuedTaskCap + ", " + ttlSeconds + ")",
+                () -> Schedulers.newBoundedElastic(threadCap, queuedTaskCap, name, ttlSeconds, true));
+    }
+
+    public Scheduler acquire(String name, Supplier<Scheduler> factory) {
+        return acquire(name, "custom", factory);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public synchronized int references(String name) {
+        Entry entry = entries.get(name);
+        return entry == null ? 0 : entry.references;
+    }
+
+    public synchronized Set<String> names() {
+        return new TreeSet<>(entries.keySet());
+    }
+
+    public long leaks() {
+        return leaks.get();
+    }
+
+    // Disposes every scheduler, whether it's still referenced or not
+    public void shutdown() {
+        List<Entry> disposed;
+        synchronized (this) {
+            disposed = List.copyOf(entries.values());
+            disposed.forEach(Entry::cancelReclaim);
+            entries.clear();
+        }
+        for (Entry entry : disposed) {
+            entry.scheduler.dispose();
+            listeners.forEach(l -> l.onReclaimed(entry.name));
+        }
+    }
+
+    private Scheduler acquire(String name, String kind, Supplier<Scheduler> factory) {
+        Entry entry;
+        boolean created = false;
+        synchronized (this) {
+            entry = entries.get(name);
+            if (entry == null) {
+                entry = new Entry(name, kind, factory.get());
+                entries.put(name, entry);
+                created = true;
+            } else if (!entry.kind.equals(kind)) {
+                throw new IllegalStateException("Scheduler " + name + " is already registered as "
+                        + entry.kind + ", can't acquire it as " + kind);
+            }
+            entry.cancelReclaim();
+            entry.references++;
+        }
+        if (created) {
+            Scheduler scheduler = entry.scheduler;
+            listeners.forEach(l -> l.onCreated(name, scheduler));
+        }
+        return new ManagedScheduler(this, entry,
+                recordAcquisitionSites ? new Throwable("Scheduler " + name + " acquired here") : null);
+    }
+
+    private void release(Entry entry) {
+        synchronized (this) {
+            if (--entry.references > 0 || entries.get(entry.name) != entry) {
+                return;
+            }
+            if (!idleTimeout.isZero()) {
+                entry.reclaim = REAPER.schedule(() -> reclaim(entry), idleTimeout.toNanos(), TimeUnit.NANOSECONDS);
+                return;
+            }
+        }
+        reclaim(entry);
+    }
+
+    private void reclaim(Entry entry) {
+        synchronized (this) {
+            if (entry.references > 0 || entries.get(entry.name) != entry) {
+                return;
+            }
+            entries.remove(entry.name);
+        }
+        entry.scheduler.dispose();
+        listeners.forEach(l -> l.onReclaimed(entry.name));
+    }
+
+    private void leaked(Entry entry, Throwable acquisitionSite) {
+        leaks.incrementAndGet();
+        if (acquisitionSite != null) {
+            log.warn("Scheduler " + entry.name + " was never disposed", acquisitionSite);
+        } else {
+            log.warn("Scheduler " + entry.name + " was never disposed");
+        }
+        listeners.forEach(l -> l.onLeak(entry.name, acquisitionSite));
+        release(entry);
+    }
+
+    private static final class Entry {
+        final String name;
+        final String kind;
+        final Scheduler scheduler;
+        int references;
+        ScheduledFuture<?> reclaim;
+
+        Entry(String name, String kind, Scheduler scheduler) {
+            this.name = name;
+            this.kind = kind;
+            this.scheduler = scheduler;
+        }
+
+        void cancelReclaim() {
+            if (reclaim != null) {
+                reclaim.cancel(false);
+                reclaim = null;
+            }
+        }
+    }
+
+    // Runs when a handle is disposed or garbage collected. It must not reference the handle.
+    private static final class Release implements Runnable {
+        final SchedulerRegistry registry;
+        final Entry entry;
+        final Throwable acquisitionSite;
+        final AtomicBoolean released = new AtomicBoolean();
+
+        Release(SchedulerRegistry registry, Entry entry, Throwable acquisitionSite) {
+            this.registry = registry;
+            this.entry = entry;
+            this.acquisitionSite = acquisitionSite;
+        }
+
+        @Override
+        public void run() {
+            if (released.compareAndSet(false, true)) {
+                registry.leaked(entry, acquisitionSite);
+            }
+        }
+    }
+
+    private static final class ManagedScheduler implements Scheduler {
+        final SchedulerRegistry registry;
+        final Entry entry;
+        final Scheduler delegate;
+        final Release release;
+        final Cleaner.Cleanable cleanable;
+
+        ManagedScheduler(SchedulerRegistry registry, Entry entry, Throwable acquisitionSite) {
+            this.registry = registry;
+            this.entry = entry;
+            this.delegate = entry.scheduler;
+            this.release = new Release(registry, entry, acquisitionSite);
+            this.cleanable = CLEANER.register(this, release);
+        }
+
+        @Override
+        public Disposable schedule(Runnable task) {
+            return delegate.schedule(task);
+        }
+
+        @Override
+        public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+            return delegate.schedule(task, delay, unit);
+        }
+
+        @Override
+        public Disposable schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+            return delegate.schedulePeriodically(task, initialDelay, period, unit);
+        }
+
+        @Override
+        public long now(TimeUnit unit) {
+            return delegate.now(unit);
+        }
+
+        @Override
+        public Worker createWorker() {
+            return delegate.createWorker();
+        }
+
+        // Releases this handle only, the scheduler stays alive while other handles use it
+        @Override
+        public void dispose() {
+            if (release.released.compareAndSet(false, true)) {
+                registry.release(entry);
+                cleanable.clean();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return release.released.get() || delegate.isDisposed();
+        }
+
+        @Override
+        public String toString() {
+            return "ManagedScheduler(" + entry.name + ", " + delegate + ")";
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package net.eherrera.reactor.scheduler;
+
+import java.util.concurrent.RejectedExecutionException;
+
+public class TenantQuotaExceededException extends RejectedExecutionException {
+    public TenantQuotaExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,471 @@
+package net.eherrera.reactor.scheduler;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+// Shares one scheduler (typically a bounded-elastic one) between tenants, giving every tenant
+// at most maxThreadsPerTenant threads and maxQueuedPerTenant waiting tasks.
+// A slot is held by a direct task until it finishes, or by a worker (what subscribeOn and
+// publishOn use) until it's disposed, just like a bounded-elastic worker pins a thread.
+// Work over both caps is rejected with a TenantQuotaExceededException, which Reactor
+// propagates as an onError signal (a RejectedExecutionException with it as cause).
+public final class TenantQuotaScheduler {
+    public static final String TENANT_KEY = "tenant";
+    public static final String DEFAULT_TENANT = "default";
+
+    private final Scheduler delegate;
+    private final int maxThreadsPerTenant;
+    private final int maxQueuedPerTenant;
+    private final Map<String, Tenant> tenants = new ConcurrentHashMap<>();
+
+    private TenantQuotaScheduler(Scheduler delegate, int maxThreadsPerTenant, int maxQueuedPerTenant) {
+        if (maxThreadsPerTenant <= 0) {
+            throw new IllegalArgumentException("maxThreadsPerTenant must be strictly positive, was " + maxThreadsPerTenant);
+        }
+        if (maxQueuedPerTenant < 0) {
+            throw new IllegalArgumentException("maxQueuedPerTenant must be positive, was " + maxQueuedPerTenant);
+        }
+        this.delegate = delegate;
+        this.maxThreadsPerTenant = maxThreadsPerTenant;
+        this.maxQueuedPerTenant = maxQueuedPerTenant;
+    }
+
+    public static TenantQuotaScheduler create(Scheduler delegate, int maxThreadsPerTenant, int maxQueuedPerTenant) {
+        return new TenantQuotaScheduler(delegate, maxThreadsPerTenant, maxQueuedPerTenant);
+    }
+
+    public static Context tenant(String tenant) {
+        return Context.of(TENANT_KEY, tenant);
+    }
+
+    public Scheduler forTenant(String tenant) {
+        return tenants.computeIfAbsent(tenant, Tenant::new).scheduler;
+    }
+
+    public Scheduler forContext(ContextView ctx) {
+        return forTenant(ctx.getOrDefault(TENANT_KEY, DEFAULT_TENANT));
+    }
+
+    // Use with Flux.transform: subscribes on the scheduler of the tenant found in the subscriber's Context
+    public <T> Function<Flux<T>, Flux<T>> subscribeOn() {
+        return flux -> Flux.deferContextual(ctx -> flux.subscribeOn(forContext(ctx)));
+    }
+
+    public <T> Function<Mono<T>, Mono<T>> subscribeOnMono() {
+        return mono -> Mono.deferContextual(ctx -> mono.subscribeOn(forContext(ctx)));
+    }
+
+    public <T> Function<Flux<T>, Flux<T>> publishOn() {
+        return flux -> Flux.deferContextual(ctx -> flux.publishOn(forContext(ctx)));
+    }
+
+    public int activeThreads(String tenant) {
+        Tenant t = tenants.get(tenant);
+        if (t == null) {
+            return 0;
+        }
+        synchronized (t) {
+            return t.active;
+        }
+    }
+
+    public int queuedTasks(String tenant) {
+        Tenant t = tenants.get(tenant);
+        if (t == null) {
+            return 0;
+        }
+        synchronized (t) {
+            return t.queued;
+        }
+    }
+
+    public long rejectedTasks(String tenant) {
+        Tenant t = tenants.get(tenant);
+        if (t == null) {
+            return 0;
+        }
+        synchronized (t) {
+            return t.rejected;
+        }
+    }
+
+    // Something waiting for one of the tenant's slots
+    private interface Waiter {
+        void grant();
+    }
+
+    private final class Tenant {
+        final String name;
+        final Scheduler scheduler = new TenantScheduler(this);
+        final ArrayDeque<Waiter> waiting = new ArrayDeque<>();
+        int active;
+        int queued;
+        long rejected;
+
+        Tenant(String name) {
+            this.name = name;
+        }
+
+        // Takes a slot, or queues the waiter if there's room in the queue
+        synchronized boolean acquireOrWait(Waiter waiter) {
+            if (active < maxThreadsPerTenant) {
+                active++;
+                return true;
+            }
+            reserveQueued();
+            waiting.add(waiter);
+            return false;
+        }
+
+        synchronized void reserveQueued() {
+            if (queued >= maxQueuedPerTenant) {
+                rejected++;
+                throw new TenantQuotaExceededException("Tenant " + name + " already has "
+                        + active + " active threads and " + queued + " queued tasks");
+            }
+            queued++;
+        }
+
+        synchronized void dequeued(int tasks) {
+            queued -= tasks;
+        }
+
+        synchronized boolean removeWaiting(Waiter waiter) {
+            return waiting.remove(waiter);
+        }
+
+        // Hands the slot over to the next waiter, if any
+        void release() {
+            Waiter next;
+            synchronized (this) {
+                next = waiting.poll();
+                if (next == null) {
+                    active--;
+                    return;
+                }
+            }
+            next.grant();
+        }
+    }
+
+    private final class TenantScheduler implements Scheduler {
+        final Tenant tenant;
+
+        TenantScheduler(Tenant tenant) {
+            this.tenant = tenant;
+        }
+
+        @Override
+        public Disposable schedule(Runnable task) {
+            return schedule(task, 0, 0, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+            return schedule(task, delay, 0, unit);
+        }
+
+        @Override
+        public Disposable schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+            return schedule(task, initialDelay, period, unit);
+        }
+
+        private Disposable schedule(Runnable task, long delay, long period, TimeUnit unit) {
+            DirectTask directTask = new DirectTask(tenant, task, delay, period, unit);
+            if (tenant.acquireOrWait(directTask)) {
+                directTask.start();
+            }
+            return directTask;
+        }
+
+        @Override
+        public Worker createWorker() {
+            return new TenantWorker(tenant);
+        }
+
+        // The shared scheduler is owned by whoever created it
+        @Override
+        public void dispose() {
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return delegate.isDisposed();
+        }
+
+        @Override
+        public String toString() {
+            return "TenantScheduler(" + tenant.name + ", " + delegate + ")";
+        }
+    }
+
+    // A task scheduled directly on the Scheduler, it holds a slot until it finishes
+    private final class DirectTask implements Disposable, Waiter {
+        final Tenant tenant;
+        final Runnable task;
+        final long delay;
+        final long period;
+        final TimeUnit unit;
+        final AtomicBoolean released = new AtomicBoolean();
+        volatile Disposable scheduled;
+        volatile boolean disposed;
+        // Set before disposed is checked by a run, so dispose only releases a slot nobody uses
+        volatile boolean running;
+
+        DirectTask(Tenant tenant, Runnable task, long delay, long period, TimeUnit unit) {
+            this.tenant = tenant;
+            this.task = task;
+            this.delay = delay;
+            this.period = period;
+            this.unit = unit;
+        }
+
+        @Override
+        public void grant() {
+            tenant.dequeued(1);
+            start();
+        }
+
+        void start() {
+            if (disposed) {
+                release();
+                return;
+            }
+            try {
+                if (period > 0) {
+                    scheduled = delegate.schedulePeriodically(this::runPeriodically, delay, period, unit);
+                } else if (delay > 0) {
+                    scheduled = delegate.schedule(this::runOnce, delay, unit);
+                } else {
+                    scheduled = delegate.schedule(this::runOnce);
+                }
+            } catch (RuntimeException e) {
+                release();
+                throw e;
+            }
+            if (disposed) {
+                // The delegate may drop the cancelled task without running it
+                scheduled.dispose();
+                releaseUnlessRunning();
+            }
+        }
+
+        void runOnce() {
+            running = true;
+            try {
+                if (!disposed) {
+                    task.run();
+                }
+            } finally {
+                release();
+            }
+        }
+
+        void runPeriodically() {
+            running = true;
+            try {
+                if (!disposed) {
+                    task.run();
+                }
+            } finally {
+                running = false;
+                if (disposed) {
+                    release();
+                }
+            }
+        }
+
+        void releaseUnlessRunning() {
+            if (!running) {
+                release();
+            }
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                tenant.release();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (disposed) {
+                return;
+            }
+            disposed = true;
+            if (tenant.removeWaiting(this)) {
+                tenant.dequeued(1);
+                return;
+            }
+            Disposable d = scheduled;
+            if (d != null) {
+                d.dispose();
+                // A run in progress releases the slot when it finishes
+                releaseUnlessRunning();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    // A worker holds a slot from its first task until it's disposed.
+    // Until it gets one, its tasks are buffered and count as queued tasks of the tenant.
+    private final class TenantWorker implements Scheduler.Worker, Waiter {
+        static final int NEW = 0;
+        static final int WAITING = 1;
+        static final int ACTIVE = 2;
+        static final int DISPOSED = 3;
+
+        final Tenant tenant;
+        final List<PendingTask> pending = new ArrayList<>();
+        int state = NEW;
+        Scheduler.Worker worker;
+
+        TenantWorker(Tenant tenant) {
+            this.tenant = tenant;
+        }
+
+        @Override
+        public Disposable schedule(Runnable task) {
+            return schedule(new PendingTask(task, 0, 0, TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+            return schedule(new PendingTask(task, delay, 0, unit));
+        }
+
+        @Override
+        public Disposable schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+            return schedule(new PendingTask(task, initialDelay, period, unit));
+        }
+
+        private synchronized Disposable schedule(PendingTask task) {
+            switch (state) {
+                case ACTIVE:
+                    task.forward(worker);
+                    return task;
+                case WAITING:
+                    tenant.reserveQueued();
+                    pending.add(task);
+                    return task;
+                case NEW:
+                    if (tenant.acquireOrWait(this)) {
+                        state = ACTIVE;
+                        worker = delegate.createWorker();
+                        task.forward(worker);
+                    } else {
+                        state = WAITING;
+                        pending.add(task);
+                    }
+                    return task;
+                default:
+                    throw new TenantQuotaExceededException("Worker of tenant " + tenant.name + " is disposed");
+            }
+        }
+
+        @Override
+        public void grant() {
+            synchronized (this) {
+                if (state != DISPOSED) {
+                    state = ACTIVE;
+                    worker = delegate.createWorker();
+                    pending.forEach(task -> task.forward(worker));
+                    tenant.dequeued(pending.size());
+                    pending.clear();
+                    return;
+                }
+            }
+            tenant.release();
+        }
+
+        @Override
+        public void dispose() {
+            int previous;
+            synchronized (this) {
+                previous = state;
+                state = DISPOSED;
+                if (previous == ACTIVE) {
+                    worker.dispose();
+                } else if (previous == WAITING) {
+                    // If it's not waiting anymore, grant() is about to hand the slot to the next waiter
+                    tenant.removeWaiting(this);
+                    tenant.dequeued(pending.size());
+                    pending.clear();
+                }
+            }
+            if (previous == ACTIVE) {
+                tenant.release();
+            }
+        }
+
+        @Override
+        public synchronized boolean isDisposed() {
+            return state == DISPOSED;
+        }
+    }
+
+    private static final class PendingTask implements Disposable {
+        final Runnable task;
+        final long delay;
+        final long period;
+        final TimeUnit unit;
+        volatile Disposable scheduled;
+        volatile boolean disposed;
+        // Set before disposed is checked by a run, so dispose only releases a slot nobody uses
+        volatile boolean running;
+
+        PendingTask(Runnable task, long delay, long period, TimeUnit unit) {
+            this.task = task;
+            this.delay = delay;
+            this.period = period;
+            this.unit = unit;
+        }
+
+        void forward(Scheduler.Worker worker) {
+            if (disposed) {
+                return;
+            }
+            if (period > 0) {
+                scheduled = worker.schedulePeriodically(task, delay, period, unit);
+            } else if (delay > 0) {
+                scheduled = worker.schedule(task, delay, unit);
+            } else {
+                scheduled = worker.schedule(task);
+            }
+            if (disposed) {
+                scheduled.dispose();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+            Disposable d = scheduled;
+            if (d != null) {
+                d.dispose();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package net.eherrera.reactor.benchmark;
+
+import net.eherrera.reactor.context.AssemblyCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// A request per subscription: a sub-pipeline of ten operators that depends on the tenant
+// (with a per-tenant regex compiled at assembly), assembled on every subscription with
+// transformDeferredContextual or cached per tenant. assemblyOnly is the cost the cache saves.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AssemblyCacheBenchmark {
+    static final Context[] TENANTS = {
+            Context.of("tenant", "acme", "requestId", 1),
+            Context.of("tenant", "globex", "requestId", 2),
+            Context.of("tenant", "initech", "requestId", 3)
+    };
+
+    final Mono<Integer> uncached = Mono.just(1)
+            .transformDeferredContextual(AssemblyCacheBenchmark::subPipeline);
+    final Mono<Integer> cached = Mono.just(1)
+            .transform(AssemblyCache.keyedBy("tenant")
+                    .transformDeferredContextualMono(AssemblyCacheBenchmark::subPipeline));
+    int request;
+    int result;
+
+    // The pipelines are synchronous, subscribe instead of block to leave the latch out of the measure
+    @Benchmark
+    public int transformDeferredContextual() {
+        uncached.contextWrite(TENANTS[request++ % TENANTS.length]).subscribe(v -> result = v);
+        return result;
+    }
+
+    @Benchmark
+    public int assemblyCache() {
+        cached.contextWrite(TENANTS[request++ % TENANTS.length]).subscribe(v -> result = v);
+        return result;
+    }
+
+    @Benchmark
+    public Mono<Integer> assemblyOnly() {
+        return subPipeline(Mono.just(1), TENANTS[request++ % TENANTS.length]);
+    }
+
+    static Mono<Integer> subPipeline(Mono<Integer> mono, ContextView ctx) {
+        String tenant = ctx.get("tenant");
+        Pattern allowed = Pattern.compile("^(" + tenant + "|admin)-[0-9]+$");
+        int weight = tenant.length();
+        return mono
+                .filter(i -> allowed.matcher(tenant + "-" + i).matches())
+                .map(i -> i + weight)
+                .filter(i -> i > 0)
+                .map(i -> i * 2)
+                .flatMap(i -> Mono.just(i + 1))
+                .map(i -> i - 1)
+                .filter(i -> i % 2 == 0)
+                .map(i -> i / 2)
+                .switchIfEmpty(Mono.just(0))
+                .map(i -> i + 1)
+                .onErrorReturn(-1);
+    }
+}
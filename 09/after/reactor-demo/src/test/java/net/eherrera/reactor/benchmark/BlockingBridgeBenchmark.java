@@ -0,0 +1,78 @@
+package net.eherrera.reactor.benchmark;
+
+import net.eherrera.reactor.blocking.BlockingBridge;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// 100k block() calls on Monos that complete on another thread, made by 1000 caller threads at
+// once (100 calls each), with Mono.block and with BlockingBridge.block.
+// The runtime is Java 17, so the callers are platform threads.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BlockingBridgeBenchmark {
+    static final int CALLERS = 1000;
+    static final int CALLS = 100;
+
+    ExecutorService callers;
+
+    @Setup
+    public void setup() {
+        callers = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        callers.shutdownNow();
+    }
+
+    long run(Function<Mono<Integer>, Integer> block) throws Exception {
+        List<Future<Long>> futures = new ArrayList<>(CALLERS);
+        for (int c = 0; c < CALLERS; c++) {
+            futures.add(callers.submit(() -> {
+                long sum = 0;
+                for (int i = 0; i < CALLS; i++) {
+                    sum += block.apply(Mono.just(i).publishOn(Schedulers.parallel()));
+                }
+                return sum;
+            }));
+        }
+        long total = 0;
+        for (Future<Long> future : futures) {
+            total += future.get();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long monoBlock() throws Exception {
+        return run(Mono::block);
+    }
+
+    @Benchmark
+    public long bridgeBlock() throws Exception {
+        return run(BlockingBridge::block);
+    }
+}
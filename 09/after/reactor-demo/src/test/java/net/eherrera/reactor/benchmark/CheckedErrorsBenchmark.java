@@ -0,0 +1,89 @@
+package net.eherrera.reactor.benchmark;
+
+import net.eherrera.reactor.error.CheckedErrors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+// Parsing records with dirty data, one fail-fast pipeline per record (a line with 8 fields).
+// One record in four has an invalid field, and the parser throws a checked exception.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CheckedErrorsBenchmark {
+    static final int RECORDS = 1000;
+    static final String[][] FIELDS = new String[RECORDS][];
+
+    static {
+        for (int i = 0; i < RECORDS; i++) {
+            String[] fields = new String[8];
+            for (int j = 0; j < fields.length; j++) {
+                fields[j] = String.valueOf(i * j);
+            }
+            if (i % 4 == 0) {
+                fields[5] = "n/a";
+            }
+            FIELDS[i] = fields;
+        }
+    }
+
+    @Benchmark
+    public long propagate() {
+        long valid = 0;
+        for (String[] record : FIELDS) {
+            Long sum = Flux.fromArray(record)
+                    .map(field -> {
+                        try {
+                            return parse(field);
+                        } catch (ParseException e) {
+                            throw Exceptions.propagate(e);
+                        }
+                    })
+                    .reduce(0L, Long::sum)
+                    .onErrorReturn(e -> Exceptions.unwrap(e) instanceof ParseException, -1L)
+                    .block();
+            valid += sum >= 0 ? 1 : 0;
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public long mapChecked() {
+        long valid = 0;
+        for (String[] record : FIELDS) {
+            Long sum = Flux.fromArray(record)
+                    .transform(CheckedErrors.mapChecked(CheckedErrorsBenchmark::parse))
+                    .reduce(0L, Long::sum)
+                    .onErrorReturn(ParseException.class, -1L)
+                    .block();
+            valid += sum >= 0 ? 1 : 0;
+        }
+        return valid;
+    }
+
+    static long parse(String field) throws ParseException {
+        long value = 0;
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new ParseException("Invalid number: " + field, i);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,94 @@
+package net.eherrera.reactor.benchmark;
+
+import net.eherrera.reactor.blocking.ByteBufferPool;
+import net.eherrera.reactor.blocking.ChunkReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Counting the lines of a 64MB text file: building it as a String with Files.lines and joining
+// (like blockingMethod of Test_02_HandlingBlockingCalls), and scanning 64KB pooled direct chunks.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChunkReaderBenchmark {
+    Path file;
+    final ByteBufferPool pool = ByteBufferPool.create(64 * 1024, 16);
+    final ChunkReader reader = ChunkReader.create(pool);
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("chunks", ".txt");
+        String line = "The quick brown fox jumps over the lazy dog 0123456789\n";
+        StringBuilder block = new StringBuilder();
+        while (block.length() < 1024 * 1024) {
+            block.append(line);
+        }
+        byte[] bytes = block.toString().getBytes(StandardCharsets.UTF_8);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int i = 0; i < 64; i++) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public long filesLinesJoining() {
+        return Mono.fromCallable(() -> {
+                    try (Stream<String> lines = Files.lines(file)) {
+                        return lines.collect(Collectors.joining("\n"));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(data -> data.chars().filter(c -> c == '\n').count() + 1)
+                .block();
+    }
+
+    @Benchmark
+    public long pooledChunks() {
+        return reader.read(file, ChunkReaderBenchmark::countLines)
+                .reduce(0L, Long::sum)
+                .block();
+    }
+
+    static long countLines(ByteBuffer buffer) {
+        long count = 0;
+        for (int i = buffer.position(), n = buffer.limit(); i < n; i++) {
+            if (buffer.get(i) == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+}
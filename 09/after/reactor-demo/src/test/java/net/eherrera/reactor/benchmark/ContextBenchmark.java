@@ -0,0 +1,100 @@
+package net.eherrera.reactor.benchmark;
+
+import net.eherrera.reactor.context.ContextKey;
+import net.eherrera.reactor.context.LongContextKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.concurrent.TimeUnit;
+
+// String keys and a regular Context vs typed keys and IndexedContext:
+// - a chain of 10 contextWrite with different keys, read at the source
+// - reading a value for every element of a 1000 elements Flux, with 8 keys in the Context
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContextBenchmark {
+    static final int DEPTH = 10;
+    static final int ELEMENTS = 1000;
+    static final String[] STRING_KEYS = new String[DEPTH];
+    static final LongContextKey[] TYPED_KEYS = new LongContextKey[DEPTH];
+
+    static {
+        for (int i = 0; i < DEPTH; i++) {
+            STRING_KEYS[i] = "key" + i;
+            TYPED_KEYS[i] = ContextKey.ofLong("key" + i);
+        }
+    }
+
+    @Benchmark
+    public Long deepWritesStringKeys() {
+        Mono<Long> mono = Mono.deferContextual(ctx -> {
+            long sum = 0;
+            for (String key : STRING_KEYS) {
+                sum += ctx.<Long>get(key);
+            }
+            return Mono.just(sum);
+        });
+        for (int i = 0; i < DEPTH; i++) {
+            mono = mono.contextWrite(Context.of(STRING_KEYS[i], (long) i));
+        }
+        return mono.block();
+    }
+
+    @Benchmark
+    public Long deepWritesTypedKeys() {
+        Mono<Long> mono = Mono.deferContextual(ctx -> {
+            long sum = 0;
+            for (LongContextKey key : TYPED_KEYS) {
+                sum += key.getLong(ctx, 0);
+            }
+            return Mono.just(sum);
+        });
+        for (int i = 0; i < DEPTH; i++) {
+            mono = mono.contextWrite(TYPED_KEYS[i].withLong(i));
+        }
+        return mono.block();
+    }
+
+    @Benchmark
+    public Long readsStringKeys() {
+        return Flux.range(0, ELEMENTS)
+                .<Long>handle((i, sink) -> sink.next(i * sink.contextView().getOrDefault("key7", 1L)))
+                .reduce(0L, Long::sum)
+                .contextWrite(ctx -> {
+                    for (int i = 0; i < 8; i++) {
+                        ctx = ctx.put(STRING_KEYS[i], (long) i);
+                    }
+                    return ctx;
+                })
+                .block();
+    }
+
+    @Benchmark
+    public Long readsTypedKeys() {
+        LongContextKey key = TYPED_KEYS[7];
+        return Flux.range(0, ELEMENTS)
+                .<Long>handle((i, sink) -> sink.next(i * key.getLong(sink.contextView(), 1)))
+                .reduce(0L, Long::sum)
+                .contextWrite(ctx -> {
+                    for (int i = 0; i < 8; i++) {
+                        ctx = TYPED_KEYS[i].putLong(ctx, i);
+                    }
+                    return ctx;
+                })
+                .block();
+    }
+}
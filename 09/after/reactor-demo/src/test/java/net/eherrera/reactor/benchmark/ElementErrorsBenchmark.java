@@ -0,0 +1,75 @@
+package net.eherrera.reactor.benchmark;
+
+import net.eherrera.reactor.error.ElementErrors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+// Isolating failures per element over 10M elements (one in a thousand fails),
+// with an inner Mono per element and with the fused operators
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ElementErrorsBenchmark {
+    static final int ELEMENTS = 10_000_000;
+    static final IllegalArgumentException INVALID = new IllegalArgumentException("Invalid value");
+
+    @Benchmark
+    public Long flatMapPattern() {
+        return Flux.range(0, ELEMENTS)
+                .flatMap(val -> Mono.just(val)
+                        .map(ElementErrorsBenchmark::validate)
+                        .onErrorResume(e -> Mono.just(0)))
+                .count()
+                .block();
+    }
+
+    @Benchmark
+    public Long concatMapPattern() {
+        return Flux.range(0, ELEMENTS)
+                .concatMap(val -> Mono.just(val)
+                        .map(ElementErrorsBenchmark::validate)
+                        .onErrorResume(e -> Mono.just(0)))
+                .count()
+                .block();
+    }
+
+    @Benchmark
+    public Long mapCatching() {
+        return Flux.range(0, ELEMENTS)
+                .transform(ElementErrors.mapCatching(ElementErrorsBenchmark::validate, (i, e) -> 0))
+                .count()
+                .block();
+    }
+
+    @Benchmark
+    public Long handleCatching() {
+        return Flux.range(0, ELEMENTS)
+                .transform(ElementErrors.<Integer, Integer>handleCatching(
+                        (i, sink) -> sink.next(validate(i)),
+                        (i, e) -> 0))
+                .count()
+                .block();
+    }
+
+    // The same exception instance, so the cost measured is the operators, not filling stack traces
+    static int validate(int i) {
+        if (i % 1000 == 0) {
+            throw INVALID;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,87 @@
+package net.eherrera.reactor.benchmark;
+
+import net.eherrera.reactor.error.ExpectedErrors;
+import net.eherrera.reactor.error.ValidationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+// Recovering from a failure in every fourth element, with regular and with expected exceptions
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExpectedErrorsBenchmark {
+    static final int ELEMENTS = 1000;
+    static final ValidationException INVALID = new ValidationException("Invalid value");
+
+    @Benchmark
+    public Long happyPath() {
+        return Flux.range(0, ELEMENTS)
+                .map(i -> i % 4 == 0 ? 0 : i)
+                .count()
+                .block();
+    }
+
+    @Benchmark
+    public Long regularException() {
+        return Flux.range(0, ELEMENTS)
+                .<Integer>handle((i, sink) -> {
+                    try {
+                        sink.next(validate(i));
+                    } catch (IllegalArgumentException e) {
+                        sink.next(0);
+                    }
+                })
+                .count()
+                .block();
+    }
+
+    @Benchmark
+    public Long expectedException() {
+        return Flux.range(0, ELEMENTS)
+                .transform(ExpectedErrors.mapOrRecover(ExpectedErrorsBenchmark::validateExpected, (i, e) -> 0))
+                .count()
+                .block();
+    }
+
+    @Benchmark
+    public Integer monoRegularException() {
+        return Mono.<Integer>error(new IllegalArgumentException("Invalid value"))
+                .onErrorReturn(IllegalArgumentException.class, 0)
+                .block();
+    }
+
+    @Benchmark
+    public Integer monoExpectedException() {
+        return Mono.<Integer>error(INVALID)
+                .onErrorReturn(ValidationException.class, 0)
+                .block();
+    }
+
+    static int validate(int i) {
+        if (i % 4 == 0) {
+            throw new IllegalArgumentException("Invalid value: " + i);
+        }
+        return i;
+    }
+
+    static int validateExpected(int i) {
+        if (i % 4 == 0) {
+            throw INVALID;
+        }
+        return i;
+    }
+}
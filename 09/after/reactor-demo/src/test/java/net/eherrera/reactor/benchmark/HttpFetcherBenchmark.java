@@ -0,0 +1,74 @@
+package net.eherrera.reactor.benchmark;
+
+import net.eherrera.reactor.http.HttpFetcher;
+import net.eherrera.reactor.http.StubHttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Blocking GETs of a 16KB body from the in-process stub server by 8 threads: with a new
+// HttpClient per call (like fetchUrlContent of Exercise01 in module 8), with a shared HttpFetcher
+// without caching, and with a shared HttpFetcher answering from its cache after a 304.
+// Throughput gives the requests per second, SampleTime the p99 latency.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class HttpFetcherBenchmark {
+    static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    StubHttpServer server;
+    HttpFetcher uncached;
+    HttpFetcher cached;
+    String url;
+
+    @Setup
+    public void setup() {
+        server = StubHttpServer.start("x".repeat(16 * 1024));
+        uncached = HttpFetcher.create("uncached", 16, 0, Duration.ofSeconds(30));
+        cached = HttpFetcher.create("cached", 16);
+        url = server.url("/content");
+    }
+
+    @TearDown
+    public void tearDown() {
+        cached.dispose();
+        uncached.dispose();
+        server.dispose();
+    }
+
+    @Benchmark
+    public String perCallClient() {
+        return HttpClient.create()
+                .get()
+                .uri(url)
+                .responseSingle((response, content) -> content.asString())
+                .block(TIMEOUT);
+    }
+
+    @Benchmark
+    public String sharedPool() {
+        return uncached.fetch(url).block(TIMEOUT);
+    }
+
+    @Benchmark
+    public String sharedPoolConditionalGet() {
+        return cached.fetch(url).block(TIMEOUT);
+    }
+}
@@ -0,0 +1,61 @@
+package net.eherrera.reactor.benchmark;
+
+import net.eherrera.reactor.scheduler.SchedulerRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Cost of assembling and running a pipeline that needs its own single-threaded scheduler
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SchedulerRegistryBenchmark {
+    SchedulerRegistry registry;
+
+    @Setup
+    public void setup() {
+        registry = new SchedulerRegistry(Duration.ofSeconds(60), false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        registry.shutdown();
+    }
+
+    @Benchmark
+    public Integer newSchedulerPerPipeline() {
+        Scheduler scheduler = Schedulers.newSingle("singleScheduler", true);
+        try {
+            return Mono.just(1).publishOn(scheduler).block();
+        } finally {
+            scheduler.dispose();
+        }
+    }
+
+    @Benchmark
+    public Integer registryScheduler() {
+        Scheduler scheduler = registry.single("singleScheduler");
+        try {
+            return Mono.just(1).publishOn(scheduler).block();
+        } finally {
+            scheduler.dispose();
+        }
+    }
+}
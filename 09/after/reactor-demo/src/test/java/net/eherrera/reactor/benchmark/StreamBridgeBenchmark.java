@@ -0,0 +1,70 @@
+package net.eherrera.reactor.benchmark;
+
+import net.eherrera.reactor.blocking.StreamBridge;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.TimeUnit;
+
+// Summing 1M elements emitted on another thread through a blocking Stream or Iterable.
+// Divide by 1M for the cost per element.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StreamBridgeBenchmark {
+    static final int ELEMENTS = 1_000_000;
+
+    final Scheduler producer = Schedulers.newSingle("producer");
+    final StreamBridge bridge = StreamBridge.create();
+
+    Flux<Integer> source() {
+        return Flux.range(0, ELEMENTS).subscribeOn(producer);
+    }
+
+    @TearDown
+    public void tearDown() {
+        producer.dispose();
+    }
+
+    @Benchmark
+    public long toStream() {
+        return source().toStream().mapToLong(i -> i).sum();
+    }
+
+    @Benchmark
+    public long toIterable() {
+        long sum = 0;
+        for (Integer i : source().toIterable()) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long bridgeStream() {
+        return bridge.toStream(source()).mapToLong(i -> i).sum();
+    }
+
+    @Benchmark
+    public long bridgeIterable() {
+        long sum = 0;
+        for (Integer i : bridge.toIterable(source())) {
+            sum += i;
+        }
+        return sum;
+    }
+}
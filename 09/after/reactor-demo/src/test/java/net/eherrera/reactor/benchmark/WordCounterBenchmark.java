@@ -0,0 +1,102 @@
+package net.eherrera.reactor.benchmark;
+
+import net.eherrera.reactor.parallel.WordCounter;
+import net.eherrera.reactor.parallel.WordCounts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Counting the words of 16 text files of 2MB: reading every file as a String, splitting it and
+// counting in a HashMap on parallel rails, and WordCounter with one rail and with one per core.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WordCounterBenchmark {
+    static final String[] WORDS = ("The quick brown fox jumps over the lazy dog while reactive streams "
+            + "apply back pressure to every publisher and subscriber on parallel rails").split(" ");
+
+    Path dir;
+    List<Path> files = new ArrayList<>();
+    final WordCounter oneRail = WordCounter.create(4, 1);
+    final WordCounter allRails = WordCounter.create(4, Schedulers.DEFAULT_POOL_SIZE);
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("words");
+        Random random = new Random(0);
+        for (int f = 0; f < 16; f++) {
+            StringBuilder text = new StringBuilder();
+            while (text.length() < 2 * 1024 * 1024) {
+                text.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(12) == 0 ? ".\n" : " ");
+            }
+            files.add(Files.writeString(dir.resolve("file-" + f + ".txt"), text));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        for (Path file : files) {
+            Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    public Map<String, Long> stringSplit() {
+        return Flux.fromIterable(files)
+                .parallel()
+                .runOn(Schedulers.parallel())
+                .map(file -> {
+                    try {
+                        Map<String, Long> counts = new HashMap<>();
+                        for (String word : Files.readString(file).toLowerCase().split("[^a-z0-9]+")) {
+                            if (!word.isEmpty()) {
+                                counts.merge(word, 1L, Long::sum);
+                            }
+                        }
+                        return counts;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .reduce((m1, m2) -> {
+                    m2.forEach((word, count) -> m1.merge(word, count, Long::sum));
+                    return m1;
+                })
+                .block();
+    }
+
+    @Benchmark
+    public WordCounts wordCounterOneRail() {
+        return oneRail.countWords(Flux.fromIterable(files)).block();
+    }
+
+    @Benchmark
+    public WordCounts wordCounterAllRails() {
+        return allRails.countWords(Flux.fromIterable(files)).block();
+    }
+}
@@ -0,0 +1,96 @@
+package net.eherrera.reactor.m5;
+
+import net.eherrera.reactor.error.ExpectedErrors;
+import net.eherrera.reactor.error.ExpectedException;
+import net.eherrera.reactor.error.NotFoundException;
+import net.eherrera.reactor.error.ValidationException;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_04_ExpectedErrors {
+    static final ValidationException DIVISOR_IS_ZERO = new ValidationException("Divisor is zero");
+
+    @Test
+    void example_01_NoStackTrace() {
+        ExpectedException e = new NotFoundException("User not found");
+        e.addSuppressed(new RuntimeException("Ignored"));
+
+        assertEquals(0, e.getStackTrace().length);
+        assertEquals(0, e.getSuppressed().length);
+    }
+
+    @Test
+    void example_02_onExpectedErrorReturn() {
+        Flux<Integer> integerFlux = Flux.just(1, 2, 3, 4, 5);
+
+        StepVerifier.create(integerFlux
+                        .map(i -> divide(i, i - 3))
+                        .transform(ExpectedErrors.onExpectedErrorReturn(0)))
+                .expectNext(0, -2, 0)
+                .verifyComplete();
+    }
+
+    @Test
+    void example_03_onExpectedErrorResume() {
+        Flux<Integer> integerFlux = Flux.just(1, 2, 3, 4, 5);
+
+        StepVerifier.create(integerFlux
+                        .map(i -> divide(i, i - 3))
+                        .transform(ExpectedErrors.onExpectedErrorResume(e -> {
+                            // The same instance every time
+                            assertSame(DIVISOR_IS_ZERO, e);
+                            return Flux.just(4, 5);
+                        })))
+                .expectNext(0, -2, 4, 5)
+                .verifyComplete();
+    }
+
+    @Test
+    void example_04_mapOrRecover() {
+        Flux<Integer> integerFlux = Flux.just(1, 2, 3, 4, 5);
+
+        StepVerifier.create(integerFlux
+                        .transform(ExpectedErrors.mapOrRecover(
+                                i -> divide(i, i - 3),
+                                (i, e) -> {
+                                    System.out.format("The value %d caused the exception: %s\n", i, e);
+                                    return 0;
+                                })))
+                .expectNext(0, -2, 0, 4, 2)
+                .verifyComplete();
+    }
+
+    @Test
+    void example_05_UnexpectedErrors() {
+        Flux<Integer> integerFlux = Flux.just(1, 2, 3, 4, 5);
+
+        // Only ExpectedException is recovered, an ArithmeticException still terminates the sequence
+        StepVerifier.create(integerFlux
+                        .transform(ExpectedErrors.mapOrRecover(i -> i / (i - 3), (i, e) -> 0)))
+                .expectNext(0, -2)
+                .verifyError(ArithmeticException.class);
+    }
+
+    @Test
+    void example_06_Mono() {
+        StepVerifier.create(Mono.<String>error(NotFoundException.INSTANCE)
+                        .onErrorReturn(NotFoundException.class, "default"))
+                .expectNext("default")
+                .verifyComplete();
+    }
+
+    static int divide(int dividend, int divisor) {
+        if (divisor == 0) {
+            throw DIVISOR_IS_ZERO;
+        }
+        return dividend / divisor;
+    }
+}
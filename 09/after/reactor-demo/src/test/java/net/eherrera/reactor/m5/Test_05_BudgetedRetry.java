@@ -0,0 +1,131 @@
+package net.eherrera.reactor.m5;
+
+import net.eherrera.reactor.retry.BudgetedRetry;
+import net.eherrera.reactor.retry.RetryBudget;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_05_BudgetedRetry {
+    @Test
+    void example_01_Retry() {
+        RetryBudget budget = RetryBudget.create(0.1);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Fails twice, then succeeds
+        Flux<List<String>> userNamesFlux = Flux.defer(() -> Flux.just(simulateApiCall(attempts.incrementAndGet() > 2)))
+                .retryWhen(BudgetedRetry.decorrelatedJitter(3, Duration.ofMillis(10)).budget(budget));
+
+        StepVerifier.create(userNamesFlux)
+                .expectNext(Arrays.asList("Alice", "Bob", "Carol", "David"))
+                .verifyComplete();
+        System.out.println(budget);
+        assertEquals(1, budget.calls());
+        assertEquals(2, budget.retries());
+    }
+
+    @Test
+    void example_02_MaxAttempts() {
+        RetryBudget budget = RetryBudget.create(0.1);
+
+        Flux<List<String>> userNamesFlux = Flux.defer(() -> Flux.just(simulateApiCall(false)))
+                .retryWhen(BudgetedRetry.decorrelatedJitter(3, Duration.ofMillis(10)).budget(budget));
+
+        // The original exception is propagated, not a RetryExhaustedException
+        StepVerifier.create(userNamesFlux)
+                .verifyErrorMessage("Remote API error");
+        assertEquals(3, budget.retries());
+    }
+
+    @Test
+    void example_03_BudgetExhausted() {
+        RetryBudget budget = RetryBudget.create(0.1, 1, 10);
+
+        Flux<List<String>> userNamesFlux = Flux.defer(() -> Flux.just(simulateApiCall(false)))
+                .retryWhen(BudgetedRetry.decorrelatedJitter(3, Duration.ofMillis(10)).budget(budget));
+
+        // Only one retry in the budget
+        StepVerifier.create(userNamesFlux)
+                .verifyErrorMessage("Remote API error");
+        assertEquals(1, budget.retries());
+        assertEquals(1, budget.exhausted());
+    }
+
+    @Test
+    void example_04_RetryStorm() {
+        RetryBudget budget = RetryBudget.create(0.1, 0, 100);
+        BudgetedRetry retry = BudgetedRetry.decorrelatedJitter(3, Duration.ofMillis(1))
+                .maxBackoff(Duration.ofMillis(5))
+                .budget(budget);
+
+        // During an outage, every call fails
+        Flux<String> calls = Flux.range(1, 200)
+                .flatMap(i -> Flux.defer(() -> Flux.just(simulateApiCall(false)))
+                        .retryWhen(retry)
+                        .map(List::toString)
+                        .onErrorReturn("fallback"));
+
+        StepVerifier.create(calls)
+                .expectNextCount(200)
+                .verifyComplete();
+        System.out.println(budget);
+        assertEquals(200, budget.calls());
+        // Without the budget there would have been 600 retries
+        assertTrue(budget.retries() <= 20);
+    }
+
+    @Test
+    void example_05_Filter() {
+        RetryBudget budget = RetryBudget.create(0.1);
+
+        Flux<Integer> integerFlux = Flux.just(1, 2, 3)
+                .map(i -> i / (i - 3))
+                .retryWhen(BudgetedRetry.decorrelatedJitter(3, Duration.ofMillis(10))
+                        .budget(budget)
+                        .filter(e -> !(e instanceof ArithmeticException)));
+
+        // Not worth retrying
+        StepVerifier.create(integerFlux)
+                .expectNext(0, -2)
+                .verifyError(ArithmeticException.class);
+        assertEquals(0, budget.retries());
+    }
+
+    @Test
+    void example_06_MaxAttemptsAfterElements() {
+        RetryBudget budget = RetryBudget.create(0.1, 100, 100);
+        AtomicInteger subscriptions = new AtomicInteger();
+
+        // Emits before failing every time, maxAttempts still counts every retry
+        Flux<String> flux = Flux.defer(() -> {
+                    subscriptions.incrementAndGet();
+                    return Flux.just("Alice", "Bob").concatWith(Flux.error(new RuntimeException("Remote API error")));
+                })
+                .retryWhen(BudgetedRetry.decorrelatedJitter(2, Duration.ofMillis(10)).budget(budget));
+
+        StepVerifier.create(flux)
+                .expectNext("Alice", "Bob", "Alice", "Bob", "Alice", "Bob")
+                .verifyErrorMessage("Remote API error");
+        assertEquals(3, subscriptions.get());
+        assertEquals(2, budget.retries());
+    }
+
+    public static List<String> simulateApiCall(boolean succeed) {
+        List<String> userNames = Arrays.asList("Alice", "Bob", "Carol", "David");
+        if (!succeed) {
+            throw new RuntimeException("Remote API error");
+        }
+        return userNames;
+    }
+}
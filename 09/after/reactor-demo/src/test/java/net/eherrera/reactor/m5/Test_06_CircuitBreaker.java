@@ -0,0 +1,149 @@
+package net.eherrera.reactor.m5;
+
+import net.eherrera.reactor.resilience.CallNotPermittedException;
+import net.eherrera.reactor.resilience.CircuitBreaker;
+import net.eherrera.reactor.resilience.CircuitBreakerConfig;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_06_CircuitBreaker {
+    final AtomicBoolean backendDown = new AtomicBoolean();
+    final AtomicInteger fetches = new AtomicInteger();
+
+    @Test
+    void example_01_Open() {
+        CircuitBreaker breaker = CircuitBreaker.create("backend", CircuitBreakerConfig.defaults()
+                .windowSize(10)
+                .minimumCalls(5)
+                .failureRateThreshold(0.5));
+        backendDown.set(true);
+
+        Flux<String> flux = Flux.range(1, 20)
+                .map(i -> "url" + i)
+                .concatMap(url -> Mono.fromCallable(() -> fetchData(url))
+                        .transform(breaker.protectMono())
+                        .map(jsonString -> parseJson(jsonString))
+                        .onErrorResume(RuntimeException.class, e -> Mono.just("FALLBACK")));
+
+        StepVerifier.create(flux)
+                .expectNextCount(20)
+                .verifyComplete();
+        // After 5 failures the breaker opened and the other 15 calls went straight to the fallback
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(5, fetches.get());
+        assertEquals(15, breaker.notPermittedCalls());
+    }
+
+    @Test
+    void example_02_HalfOpen() throws InterruptedException {
+        CircuitBreaker breaker = CircuitBreaker.create("backend", CircuitBreakerConfig.defaults()
+                .windowSize(10)
+                .minimumCalls(5)
+                .openDuration(Duration.ofMillis(100))
+                .halfOpenCalls(2));
+        Mono<String> call = Mono.fromCallable(() -> fetchData("url"))
+                .transform(breaker.protectMono());
+
+        backendDown.set(true);
+        for (int i = 0; i < 5; i++) {
+            StepVerifier.create(call).verifyError(IllegalStateException.class);
+        }
+        StepVerifier.create(call).verifyError(CallNotPermittedException.class);
+
+        // The backend recovers, after openDuration two trial calls close the breaker
+        backendDown.set(false);
+        Thread.sleep(150);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        StepVerifier.create(call).expectNextCount(1).verifyComplete();
+        StepVerifier.create(call).expectNextCount(1).verifyComplete();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void example_03_HalfOpenFails() throws InterruptedException {
+        CircuitBreaker breaker = CircuitBreaker.create("backend", CircuitBreakerConfig.defaults()
+                .windowSize(10)
+                .minimumCalls(5)
+                .openDuration(Duration.ofMillis(100))
+                .halfOpenCalls(1));
+        Mono<String> call = Mono.fromCallable(() -> fetchData("url"))
+                .transform(breaker.protectMono());
+
+        backendDown.set(true);
+        for (int i = 0; i < 5; i++) {
+            StepVerifier.create(call).verifyError(IllegalStateException.class);
+        }
+        Thread.sleep(150);
+        StepVerifier.create(call).verifyError(IllegalStateException.class);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void example_04_SlowCalls() {
+        CircuitBreaker breaker = CircuitBreaker.create("backend", CircuitBreakerConfig.defaults()
+                .windowSize(4)
+                .minimumCalls(4)
+                .slowCalls(Duration.ofMillis(50), 0.5));
+
+        Mono<String> slowCall = Mono.fromCallable(() -> fetchData("url"))
+                .delayElement(Duration.ofMillis(60))
+                .transform(breaker.protectMono());
+        Mono<String> fastCall = Mono.fromCallable(() -> fetchData("url"))
+                .transform(breaker.protectMono());
+
+        StepVerifier.create(fastCall).expectNextCount(1).verifyComplete();
+        StepVerifier.create(fastCall).expectNextCount(1).verifyComplete();
+        StepVerifier.create(slowCall).expectNextCount(1).verifyComplete();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        System.out.println("Average latency: " + breaker.averageLatency());
+        StepVerifier.create(slowCall).expectNextCount(1).verifyComplete();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void example_05_SharedBreaker() {
+        CircuitBreaker breaker = CircuitBreaker.create("backend", CircuitBreakerConfig.defaults()
+                .windowSize(10)
+                .minimumCalls(5));
+        backendDown.set(true);
+
+        // Two pipelines hitting the same backend share the breaker
+        Flux<String> pipeline1 = Flux.range(1, 5)
+                .flatMap(i -> Mono.fromCallable(() -> fetchData("url" + i))
+                        .transform(breaker.protectMono())
+                        .onErrorResume(e -> Mono.just("FALLBACK")));
+        Flux<String> pipeline2 = Flux.range(1, 5)
+                .flatMap(i -> Mono.fromCallable(() -> fetchData("url" + i))
+                        .transform(breaker.protectMono())
+                        .onErrorResume(CallNotPermittedException.class, e -> Mono.just("SHORT-CIRCUITED")));
+
+        StepVerifier.create(pipeline1).expectNextCount(5).verifyComplete();
+        StepVerifier.create(pipeline2)
+                .expectNext("SHORT-CIRCUITED", "SHORT-CIRCUITED", "SHORT-CIRCUITED", "SHORT-CIRCUITED", "SHORT-CIRCUITED")
+                .verifyComplete();
+        assertEquals(5, fetches.get());
+    }
+
+    String fetchData(String url) {
+        fetches.incrementAndGet();
+        if (backendDown.get()) {
+            throw new IllegalStateException("Backend is down");
+        }
+        return "{\"data\": \"" + url + "\"}";
+    }
+
+    String parseJson(String jsonString) {
+        return jsonString.toUpperCase();
+    }
+}
@@ -0,0 +1,125 @@
+package net.eherrera.reactor.m5;
+
+import net.eherrera.reactor.resilience.FallbackCache;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_07_FallbackCache {
+    final AtomicInteger fallbackFetches = new AtomicInteger();
+
+    @Test
+    void example_01_MassFailure() {
+        FallbackCache<String, String> fallbacks = FallbackCache.create(
+                url -> Mono.fromCallable(() -> parseJson(fetchFallback(url))),
+                Duration.ofMinutes(1));
+
+        // Every element fails, but the fallback is fetched once
+        Flux<String> flux = Flux.range(1, 100)
+                .map(i -> "url" + i)
+                .flatMap(url -> Mono.fromCallable(() -> fetchData(url))
+                        .map(jsonString -> parseJson(jsonString))
+                        .transform(fallbacks.onErrorResumeMono(RuntimeException.class, "fallbackUrl")));
+
+        StepVerifier.create(flux)
+                .expectNextCount(100)
+                .verifyComplete();
+        System.out.println(fallbacks);
+        assertEquals(1, fallbackFetches.get());
+        assertEquals(1, fallbacks.loads());
+        assertEquals(99, fallbacks.hits());
+    }
+
+    @Test
+    void example_02_ConcurrentLoad() {
+        FallbackCache<String, String> fallbacks = FallbackCache.create(
+                url -> Mono.fromCallable(() -> fetchFallback(url))
+                        .delaySubscription(Duration.ofMillis(100)),
+                Duration.ofMinutes(1));
+
+        // All the elements fail while the first fallback fetch is still in flight, they share it
+        Flux<String> flux = Flux.range(1, 10)
+                .flatMap(i -> Mono.<String>error(new RuntimeException("Invalid JSON"))
+                        .subscribeOn(Schedulers.parallel())
+                        .transform(fallbacks.onErrorResumeMono(RuntimeException.class, "fallbackUrl")));
+
+        StepVerifier.create(flux)
+                .expectNextCount(10)
+                .verifyComplete();
+        assertEquals(1, fallbackFetches.get());
+    }
+
+    @Test
+    void example_03_BackgroundRefresh() throws InterruptedException {
+        AtomicInteger version = new AtomicInteger();
+        FallbackCache<String, String> fallbacks = FallbackCache.create(
+                url -> Mono.fromCallable(() -> "FALLBACK" + version.incrementAndGet()),
+                Duration.ofMillis(100));
+
+        StepVerifier.create(fallbacks.get("fallbackUrl")).expectNext("FALLBACK1").verifyComplete();
+        Thread.sleep(150);
+
+        // Expired: the stale value is returned right away, and it's refreshed in the background
+        StepVerifier.create(fallbacks.get("fallbackUrl")).expectNext("FALLBACK1").verifyComplete();
+        Thread.sleep(50);
+        StepVerifier.create(fallbacks.get("fallbackUrl")).expectNext("FALLBACK2").verifyComplete();
+        assertEquals(1, fallbacks.refreshes());
+    }
+
+    @Test
+    void example_04_FailedRefresh() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        FallbackCache<String, String> fallbacks = FallbackCache.create(
+                url -> calls.incrementAndGet() == 1
+                        ? Mono.just("FALLBACK")
+                        : Mono.error(new IllegalStateException("Fallback backend is down")),
+                Duration.ofMillis(100));
+
+        StepVerifier.create(fallbacks.get("fallbackUrl")).expectNext("FALLBACK").verifyComplete();
+        Thread.sleep(150);
+
+        // The refresh fails, the stale value is kept
+        StepVerifier.create(fallbacks.get("fallbackUrl")).expectNext("FALLBACK").verifyComplete();
+        Thread.sleep(50);
+        StepVerifier.create(fallbacks.get("fallbackUrl")).expectNext("FALLBACK").verifyComplete();
+        assertEquals(2, fallbacks.refreshes());
+    }
+
+    @Test
+    void example_05_FailedLoad() {
+        AtomicInteger calls = new AtomicInteger();
+        FallbackCache<String, String> fallbacks = FallbackCache.create(
+                url -> calls.incrementAndGet() == 1
+                        ? Mono.error(new IllegalStateException("Fallback backend is down"))
+                        : Mono.just("FALLBACK"),
+                Duration.ofMinutes(1));
+
+        // A failed load isn't cached
+        StepVerifier.create(fallbacks.get("fallbackUrl")).verifyError(IllegalStateException.class);
+        StepVerifier.create(fallbacks.get("fallbackUrl")).expectNext("FALLBACK").verifyComplete();
+        assertEquals(2, fallbacks.loads());
+    }
+
+    String fetchData(String url) {
+        throw new RuntimeException("Backend is down");
+    }
+
+    String fetchFallback(String url) {
+        fallbackFetches.incrementAndGet();
+        return "{\"data\": \"" + url + "\"}";
+    }
+
+    String parseJson(String jsonString) {
+        return jsonString.toUpperCase();
+    }
+}
@@ -0,0 +1,134 @@
+package net.eherrera.reactor.m5;
+
+import net.eherrera.reactor.error.ElementErrors;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_08_ElementErrors {
+    @Test
+    void example_01_mapCatching() {
+        Flux<Integer> integerFlux = Flux.just(1, 2, 3, 4, 5);
+
+        // Same as example_14 of Test_02_ErrorOperators, without an inner Mono per element
+        StepVerifier.create(integerFlux
+                        .transform(ElementErrors.mapCatching(i -> i / (i - 3), (i, e) -> {
+                            System.out.println("Inside exception: " + e);
+                            return null;
+                        })))
+                .expectNext(0, -2, 4, 2)
+                .verifyComplete();
+    }
+
+    @Test
+    void example_02_onErrorContinue() {
+        Flux<Integer> integerFlux = Flux.just(1, 2, 3, 4, 5);
+
+        // As in example_16, the error is handled inside, onErrorContinue never sees it
+        StepVerifier.create(integerFlux
+                        .transform(ElementErrors.mapCatching(i -> i / (i - 3), (i, e) -> -1))
+                        .onErrorContinue((e, i) -> {
+                            throw new IllegalStateException("Not expected");
+                        }))
+                .expectNext(0, -2, -1, 4, 2)
+                .verifyComplete();
+    }
+
+    @Test
+    void example_03_ExceptionType() {
+        // Exercise04, only IllegalArgumentException is recovered
+        StepVerifier.create(Flux.just(1, 2, 3, 4, 5)
+                        .transform(ElementErrors.mapCatching(
+                                Test_08_ElementErrors::processNumber,
+                                IllegalArgumentException.class,
+                                (number, e) -> {
+                                    System.out.println("Error processing " + number + ": " + e.getMessage());
+                                    return -1;
+                                })))
+                .expectNext(2, -1, 6, -1, 10)
+                .verifyComplete();
+
+        StepVerifier.create(Flux.just(1, 2, 3)
+                        .transform(ElementErrors.mapCatching(
+                                i -> i / (i - 3),
+                                IllegalArgumentException.class,
+                                (i, e) -> -1)))
+                .expectNext(0, -2)
+                .verifyError(ArithmeticException.class);
+    }
+
+    @Test
+    void example_04_handleCatching() {
+        Flux<Integer> integerFlux = Flux.just(1, 2, -3, 4);
+
+        // Both thrown exceptions and sink.error are recovered
+        StepVerifier.create(integerFlux
+                        .transform(ElementErrors.<Integer, Integer>handleCatching((num, sink) -> {
+                            if (num < 0) {
+                                sink.error(new IllegalArgumentException("Negative numbers are not allowed."));
+                            } else if (num == 4) {
+                                throw new IllegalStateException("Four is not allowed.");
+                            } else {
+                                sink.next(num * 2);
+                            }
+                        }, (num, e) -> 0)))
+                .expectNext(2, 4, 0, 0)
+                .verifyComplete();
+    }
+
+    @Test
+    void example_05_FailingRecovery() {
+        Flux<Integer> integerFlux = Flux.just(1, 2, 3, 4, 5);
+
+        StepVerifier.create(integerFlux
+                        .transform(ElementErrors.mapCatching(i -> i / (i - 3), (i, e) -> {
+                            throw new IllegalStateException("Can't recover " + i);
+                        })))
+                .expectNext(0, -2)
+                .verifyErrorMessage("Can't recover 3");
+    }
+
+    @Test
+    void example_06_NullResult() {
+        // As with map, a null result is an error, which is recovered
+        StepVerifier.create(Flux.just(1, 2, 3)
+                        .transform(ElementErrors.<Integer, Integer>mapCatching(i -> i == 2 ? null : i,
+                                (i, e) -> e instanceof NullPointerException ? -1 : null)))
+                .expectNext(1, -1, 3)
+                .verifyComplete();
+
+        // Or terminates the sequence when it isn't of the recovered type
+        StepVerifier.create(Flux.just(1, 2, 3)
+                        .transform(ElementErrors.<Integer, Integer, IllegalArgumentException>mapCatching(
+                                i -> i == 2 ? null : i, IllegalArgumentException.class, (i, e) -> -1)))
+                .expectNext(1)
+                .verifyError(NullPointerException.class);
+    }
+
+    @Test
+    void example_07_HandleComplete() {
+        // Like handle, complete() ends the whole sequence, not just the element
+        StepVerifier.create(Flux.just(1, 2, 3)
+                        .transform(ElementErrors.<Integer, Integer>handleCatching((i, sink) -> {
+                            if (i == 2) {
+                                sink.complete();
+                            } else {
+                                sink.next(i);
+                            }
+                        }, (i, e) -> -1)))
+                .expectNext(1)
+                .verifyComplete();
+    }
+
+    static int processNumber(int number) {
+        int doubled = number * 2;
+        if (doubled % 4 == 0) {
+            throw new IllegalArgumentException("Result is divisible by 4");
+        }
+        return doubled;
+    }
+}
@@ -0,0 +1,212 @@
+package net.eherrera.reactor.m5;
+
+import net.eherrera.reactor.error.DeadLetterSink;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_09_DeadLetters {
+    @TempDir
+    Path dir;
+
+    final CountDownLatch writing = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+
+    @Test
+    void example_01_onErrorContinue() throws IOException {
+        DeadLetterSink deadLetters = DeadLetterSink.create(dir.resolve("dead-letters.tsv"));
+        Flux<Integer> integerFlux = Flux.just(1, 2, 3, 4, 5);
+
+        // Same as example_10 of Test_02_ErrorOperators, but the failure is persisted
+        StepVerifier.create(integerFlux
+                        .map(i -> i / (i - 3))
+                        .transform(deadLetters.onErrorContinue()))
+                .expectNext(0, -2, 4, 2)
+                .verifyComplete();
+        deadLetters.dispose();
+
+        List<String> lines = Files.readAllLines(deadLetters.file());
+        lines.forEach(System.out::println);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).endsWith("\t3\tjava.lang.ArithmeticException\t/ by zero"));
+    }
+
+    @Test
+    void example_02_DropOldest() throws Exception {
+        DeadLetterSink deadLetters = DeadLetterSink.create(dir.resolve("dead-letters.tsv"),
+                4, DeadLetterSink.OverflowPolicy.DROP_OLDEST, 1, blockingFormatter());
+
+        fillWhileWriterIsBusy(deadLetters);
+        assertEquals(6, deadLetters.dropped());
+        release.countDown();
+        deadLetters.dispose();
+
+        assertEquals(List.of("1", "8", "9", "10", "11"), writtenValues(deadLetters));
+    }
+
+    @Test
+    void example_03_Sample() throws Exception {
+        DeadLetterSink deadLetters = DeadLetterSink.create(dir.resolve("dead-letters.tsv"),
+                4, DeadLetterSink.OverflowPolicy.SAMPLE, 3, blockingFormatter());
+
+        // Only every third overflowing element (8 and 11) makes it into the queue
+        fillWhileWriterIsBusy(deadLetters);
+        assertEquals(6, deadLetters.overflows());
+        release.countDown();
+        deadLetters.dispose();
+
+        assertEquals(List.of("1", "4", "5", "8", "11"), writtenValues(deadLetters));
+    }
+
+    @Test
+    void example_04_Block() throws Exception {
+        DeadLetterSink deadLetters = DeadLetterSink.create(dir.resolve("dead-letters.tsv"),
+                4, DeadLetterSink.OverflowPolicy.BLOCK, 1, blockingFormatter());
+
+        deadLetters.offer(new IllegalStateException("Failed"), 1);
+        assertTrue(writing.await(1, TimeUnit.SECONDS));
+        for (int i = 2; i <= 5; i++) {
+            deadLetters.offer(new IllegalStateException("Failed"), i);
+        }
+        // The queue is full, the producer waits for the writer
+        CompletableFuture<Boolean> blocked = CompletableFuture.supplyAsync(
+                () -> deadLetters.offer(new IllegalStateException("Failed"), 6));
+        Thread.sleep(100);
+        assertFalse(blocked.isDone());
+
+        release.countDown();
+        assertTrue(blocked.get(1, TimeUnit.SECONDS));
+        deadLetters.dispose();
+
+        assertEquals(List.of("1", "2", "3", "4", "5", "6"), writtenValues(deadLetters));
+        assertEquals(0, deadLetters.dropped());
+    }
+
+    @Test
+    void example_05_HeavyLoad() throws IOException {
+        DeadLetterSink deadLetters = DeadLetterSink.create(dir.resolve("dead-letters.tsv"));
+
+        // Every other element fails, from several threads
+        StepVerifier.create(Flux.range(1, 100_000)
+                        .parallel(4)
+                        .runOn(reactor.core.scheduler.Schedulers.parallel())
+                        .map(i -> {
+                            if (i % 2 == 0) {
+                                throw new IllegalArgumentException("Even");
+                            }
+                            return i;
+                        })
+                        .sequential()
+                        .transform(deadLetters.onErrorContinue())
+                        .count())
+                .expectNext(50_000L)
+                .verifyComplete();
+        deadLetters.dispose();
+
+        System.out.println(deadLetters);
+        assertEquals(50_000, deadLetters.offered());
+        assertEquals(deadLetters.offered(), deadLetters.written() + deadLetters.dropped());
+        assertEquals(deadLetters.written(), Files.readAllLines(deadLetters.file()).size());
+    }
+
+    @Test
+    void example_06_DisposeWhileOffering() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            DeadLetterSink deadLetters = DeadLetterSink.create(dir.resolve("dead-letters-" + round + ".tsv"));
+            CountDownLatch started = new CountDownLatch(4);
+            List<CompletableFuture<Void>> producers = IntStream.range(0, 4)
+                    .mapToObj(p -> CompletableFuture.runAsync(() -> {
+                        started.countDown();
+                        for (int i = 0; i < 20_000; i++) {
+                            deadLetters.offer(new IllegalArgumentException("Bad"), i);
+                        }
+                    }))
+                    .collect(Collectors.toList());
+            started.await();
+            deadLetters.dispose();
+            CompletableFuture.allOf(producers.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+            // Every element offered around the dispose is either written or counted as dropped
+            assertEquals(deadLetters.offered(), deadLetters.written() + deadLetters.dropped(), deadLetters.toString());
+            assertEquals(0, deadLetters.pending());
+        }
+    }
+
+    @Test
+    void example_07_DisposeWritesPending() throws Exception {
+        DeadLetterSink deadLetters = DeadLetterSink.create(dir.resolve("dead-letters.tsv"), 100_000,
+                DeadLetterSink.OverflowPolicy.DROP_OLDEST, 10, blockingFormatter());
+        fillWhileWriterIsBusy(deadLetters);
+
+        // Another producer keeps offering while the sink is disposed, what it offers late is
+        // dropped, but it doesn't take the pending elements away from the writer's final drain
+        CompletableFuture<Void> producer = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < 50_000 && !deadLetters.isDisposed(); i++) {
+                deadLetters.offer(new IllegalStateException("Late"), "late");
+            }
+            for (int i = 0; i < 1_000; i++) {
+                deadLetters.offer(new IllegalStateException("Late"), "late");
+            }
+        });
+        CompletableFuture<Void> dispose = CompletableFuture.runAsync(deadLetters::dispose);
+        producer.get(5, TimeUnit.SECONDS);
+        release.countDown();
+        dispose.get(5, TimeUnit.SECONDS);
+
+        System.out.println(deadLetters);
+        assertEquals(0, deadLetters.overflows());
+        List<String> written = writtenValues(deadLetters);
+        assertEquals(List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11"),
+                written.stream().filter(value -> !value.equals("late")).collect(Collectors.toList()));
+        assertEquals(deadLetters.offered(), deadLetters.written() + deadLetters.dropped());
+        assertEquals(written.size(), deadLetters.written());
+    }
+
+    // The writer blocks while writing the first element, so the queue fills up
+    Function<Object, String> blockingFormatter() {
+        return value -> {
+            if (value.equals(1)) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return String.valueOf(value);
+        };
+    }
+
+    void fillWhileWriterIsBusy(DeadLetterSink deadLetters) throws InterruptedException {
+        deadLetters.offer(new IllegalStateException("Failed"), 1);
+        assertTrue(writing.await(1, TimeUnit.SECONDS));
+        for (int i = 2; i <= 11; i++) {
+            deadLetters.offer(new IllegalStateException("Failed"), i);
+        }
+    }
+
+    List<String> writtenValues(DeadLetterSink deadLetters) throws IOException {
+        return Files.readAllLines(deadLetters.file()).stream()
+                .map(line -> line.split("\t")[1])
+                .collect(Collectors.toList());
+    }
+}
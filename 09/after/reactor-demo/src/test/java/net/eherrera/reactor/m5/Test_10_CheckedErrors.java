@@ -0,0 +1,95 @@
+package net.eherrera.reactor.m5;
+
+import net.eherrera.reactor.error.CheckedErrors;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_10_CheckedErrors {
+    @Test
+    void example_01_mapChecked() {
+        Flux<Integer> integerFlux = Flux.just(1, 2, 3, -4, 5);
+
+        // Same as example_04_propagate of Test_03_CheckedExceptions, without the try/catch,
+        // and the original exception is signaled, there's nothing to unwrap
+        StepVerifier.create(integerFlux
+                        .transform(CheckedErrors.mapChecked(i -> getValue(i))))
+                .expectNext(10, 20, 30)
+                .expectErrorMatches(e -> e.getClass() == Exception.class
+                        && e.getMessage().equals("The input value cannot be negative"))
+                .verify();
+    }
+
+    @Test
+    void example_02_onErrorContinue() {
+        Flux<Integer> integerFlux = Flux.just(1, 2, 3, -4, 5);
+        List<Throwable> errors = new ArrayList<>();
+
+        StepVerifier.create(integerFlux
+                        .transform(CheckedErrors.mapChecked(i -> getValue(i)))
+                        .onErrorContinue((e, i) -> errors.add(e)))
+                .expectNext(10, 20, 30, 50)
+                .verifyComplete();
+        assertEquals(Exception.class, errors.get(0).getClass());
+    }
+
+    @Test
+    void example_03_flatMapChecked() {
+        Flux<Integer> integerFlux = Flux.just(1, 2, 3, -4, 5);
+
+        StepVerifier.create(integerFlux
+                        .transform(CheckedErrors.flatMapChecked(i -> Flux.just(getValue(i), getValue(i) + 1), 1)))
+                .expectNext(10, 11, 20, 21, 30, 31)
+                .verifyErrorMessage("The input value cannot be negative");
+    }
+
+    @Test
+    void example_04_Mono() {
+        StepVerifier.create(Mono.just(-4)
+                        .transform(CheckedErrors.mapCheckedMono(i -> getValue(i))))
+                .verifyErrorMessage("The input value cannot be negative");
+        StepVerifier.create(Mono.just(4)
+                        .transform(CheckedErrors.flatMapCheckedMono(i -> Mono.just(getValue(i)))))
+                .expectNext(40)
+                .verifyComplete();
+    }
+
+    @Test
+    void example_05_Parsing() {
+        Flux<String> stringFlux = Flux.just("1", "2", "three", "4", "5");
+
+        // Exercise05
+        StepVerifier.create(stringFlux
+                        .transform(CheckedErrors.mapChecked(Integer::parseInt)))
+                .expectNext(1, 2)
+                .verifyError(NumberFormatException.class);
+    }
+
+    @Test
+    void example_06_NullResult() {
+        // Like map, a mapper that returns null is an error, not a missing element
+        StepVerifier.create(Flux.just(1, 2, 3)
+                        .transform(CheckedErrors.<Integer, Integer>mapChecked(i -> i == 2 ? null : getValue(i))))
+                .expectNext(10)
+                .verifyErrorMessage("The mapper returned a null value.");
+        StepVerifier.create(Mono.just(1)
+                        .transform(CheckedErrors.<Integer, Integer>mapCheckedMono(i -> null)))
+                .verifyError(NullPointerException.class);
+    }
+
+    private int getValue(int i) throws Exception {
+        if (i < 0) {
+            throw new Exception("The input value cannot be negative");
+        }
+        return i * 10;
+    }
+}
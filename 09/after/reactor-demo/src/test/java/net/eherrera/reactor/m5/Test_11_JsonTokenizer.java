@@ -0,0 +1,167 @@
+package net.eherrera.reactor.m5;
+
+import net.eherrera.reactor.json.JsonParseException;
+import net.eherrera.reactor.json.JsonToken;
+import net.eherrera.reactor.json.JsonTokenizer;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_11_JsonTokenizer {
+    final JsonTokenizer json = JsonTokenizer.create();
+
+    // The bytes of the text in buffers of size bytes, like they come from the network
+    static Flux<ByteBuffer> buffers(String text, int size) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return Flux.range(0, (bytes.length + size - 1) / size)
+                .map(i -> ByteBuffer.wrap(bytes, i * size, Math.min(size, bytes.length - i * size)));
+    }
+
+    static List<String> tokens(Flux<JsonToken> tokens) {
+        return tokens.map(JsonToken::toString).collectList().block();
+    }
+
+    @Test
+    void example_01_Tokens() {
+        StepVerifier.create(buffers("[1, {\"a\": \"x\"}, true, null]", 64).transform(json.tokens()))
+                .expectNextMatches(token -> token.type() == JsonToken.Type.START_ARRAY && token.depth() == 0)
+                .expectNextMatches(token -> token.numberValue().equals(1L) && token.depth() == 1)
+                .expectNextMatches(token -> token.type() == JsonToken.Type.START_OBJECT)
+                .expectNextMatches(token -> token.type() == JsonToken.Type.FIELD_NAME && token.text().equals("a"))
+                .expectNextMatches(token -> token.type() == JsonToken.Type.STRING && token.text().equals("x"))
+                .expectNextMatches(token -> token.type() == JsonToken.Type.END_OBJECT && token.depth() == 1)
+                .expectNextMatches(token -> token.type() == JsonToken.Type.TRUE)
+                .expectNextMatches(token -> token.type() == JsonToken.Type.NULL)
+                .expectNextMatches(token -> token.type() == JsonToken.Type.END_ARRAY && token.depth() == 0)
+                .verifyComplete();
+    }
+
+    @Test
+    void example_02_SplitAnywhere() {
+        String text = "{\"name\": \"caf\u00e9 \\u00e9 \\ud83d\\ude00 \ud83d\ude00\", \"n\": -12.5e+3, "
+                + "\"big\": 123456789012345678901234567890, \"list\": [false, \"a\\\"b\\\\c\\n\"], \"empty\": {}}";
+        List<String> whole = tokens(buffers(text, text.length() * 4).transform(json.tokens()));
+        System.out.println(whole);
+
+        // Every buffer size splits the strings, escapes, numbers and UTF-8 characters somewhere else
+        for (int size = 1; size < 16; size++) {
+            assertEquals(whole, tokens(buffers(text, size).transform(json.tokens())));
+        }
+        Map<?, ?> value = (Map<?, ?>) buffers(text, 3).transform(json.values(0)).blockFirst();
+        assertEquals("caf\u00e9 \u00e9 \ud83d\ude00 \ud83d\ude00", value.get("name"));
+        assertEquals(-12500.0, value.get("n"));
+        assertEquals(List.of(false, "a\"b\\c\n"), value.get("list"));
+        assertEquals(Map.of(), value.get("empty"));
+    }
+
+    @Test
+    void example_03_ArrayElements() {
+        String text = IntStream.range(0, 10_000)
+                .mapToObj(i -> "{\"id\": " + i + ", \"tags\": [\"t" + i + "\"]}")
+                .collect(Collectors.joining(",", "[", "]"));
+        AtomicLong buffersRequested = new AtomicLong();
+
+        // Element by element as the bytes arrive, only the buffers needed are requested
+        Flux<Object> elements = buffers(text, 512)
+                .doOnRequest(buffersRequested::addAndGet)
+                .transform(json.values(1));
+
+        StepVerifier.create(elements, 0)
+                .thenRequest(2)
+                .expectNext(Map.of("id", 0L, "tags", List.of("t0")), Map.of("id", 1L, "tags", List.of("t1")))
+                .then(() -> assertTrue(buffersRequested.get() < 10, "Requested " + buffersRequested))
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextCount(9_998)
+                .verifyComplete();
+    }
+
+    @Test
+    void example_04_Documents() {
+        // Newline-delimited JSON, or documents one after another
+        StepVerifier.create(buffers("{\"a\": 1}\n{\"a\": 2}\n\"text\" 3 [] null", 5).transform(json.values(0)))
+                .expectNext(Map.of("a", 1L), Map.of("a", 2L), "text", 3L, List.of())
+                .verifyComplete();
+    }
+
+    @Test
+    void example_05_Errors() {
+        StepVerifier.create(buffers("[1, 2 3]", 2).transform(json.tokens()))
+                .expectNextCount(3)
+                .expectErrorSatisfies(e -> {
+                    System.out.println(e);
+                    assertTrue(e instanceof JsonParseException);
+                    assertEquals(6, ((JsonParseException) e).offset());
+                })
+                .verify();
+
+        // Incomplete
+        StepVerifier.create(buffers("{\"a\": [1, 2", 4).transform(json.values(1)))
+                .expectError(JsonParseException.class)
+                .verify();
+
+        List<String> invalid = new ArrayList<>(List.of("01", "1.", "-", "tru", "nul1", "{\"a\" 1}", "{1: 2}",
+                "[1,]", "\"\\x\"", "\"\\u12g4\"", "\"a\nb\"", "]"));
+        for (String text : invalid) {
+            StepVerifier.create(buffers(text, 1).transform(json.tokens()))
+                    .thenConsumeWhile(token -> true)
+                    .expectError(JsonParseException.class)
+                    .verify();
+        }
+    }
+
+    @Test
+    void example_06_Limits() {
+        JsonTokenizer small = JsonTokenizer.create(2, 8);
+
+        StepVerifier.create(buffers("[[1]]", 1).transform(small.tokens()))
+                .expectNextCount(5)
+                .verifyComplete();
+        StepVerifier.create(buffers("[[[1]]]", 1).transform(small.tokens()))
+                .expectNextCount(2)
+                .expectErrorMessage("Nested deeper than 2 at byte 2")
+                .verify();
+        // Constant memory: a string can't grow past maxTokenLength
+        StepVerifier.create(buffers("[\"12345678\", \"123456789\"]", 4).transform(small.tokens()))
+                .expectNextCount(2)
+                .expectErrorMessage("Token longer than 8 bytes at byte 22")
+                .verify();
+    }
+
+    @Test
+    void example_07_ParseJson() {
+        // Exercise03 parses the whole String, here the JSON is parsed as the bytes come
+        Flux<Object> flux = Flux.just("url1", "url2", "url3")
+                .concatMap(url -> buffers(fetchData(url), 4)
+                        .transform(json.values(0))
+                        .cast(Map.class)
+                        .map(map -> map.get("data").toString().toUpperCase())
+                        .single()
+                        .onErrorResume(JsonParseException.class, e -> Mono.just("FALLBACK")));
+
+        StepVerifier.create(flux)
+                .expectNext("URL1", "URL2", "FALLBACK")
+                .verifyComplete();
+    }
+
+    String fetchData(String url) {
+        // url3 returns truncated JSON
+        String json = "{\"data\": \"" + url + "\"}";
+        return url.equals("url3") ? json.substring(0, json.length() - 1) : json;
+    }
+}
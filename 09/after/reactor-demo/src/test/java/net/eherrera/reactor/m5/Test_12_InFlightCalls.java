@@ -0,0 +1,133 @@
+package net.eherrera.reactor.m5;
+
+import net.eherrera.reactor.resilience.InFlightCalls;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_12_InFlightCalls {
+    final Map<String, AtomicInteger> fetches = new ConcurrentHashMap<>();
+    final AtomicInteger cancels = new AtomicInteger();
+
+    Mono<String> fetchData(String url) {
+        return Mono.fromCallable(() -> {
+                    fetches.computeIfAbsent(url, u -> new AtomicInteger()).incrementAndGet();
+                    if (url.equals("url3")) {
+                        throw new RuntimeException("Invalid JSON");
+                    }
+                    return "{\"data\": \"" + url + "\"}";
+                })
+                .delaySubscription(Duration.ofMillis(100))
+                .doOnCancel(cancels::incrementAndGet);
+    }
+
+    int fetches(String url) {
+        return fetches.getOrDefault(url, new AtomicInteger()).get();
+    }
+
+    @Test
+    void example_01_FlatMapDistinctKey() {
+        Flux<String> flux = Flux.just("url1", "url2", "url1", "url4", "url2", "url1")
+                .transform(InFlightCalls.flatMapDistinctKey(url -> url, this::fetchData));
+
+        // One result per element, one fetch per URL
+        StepVerifier.create(flux.sort())
+                .expectNext("{\"data\": \"url1\"}", "{\"data\": \"url1\"}", "{\"data\": \"url1\"}")
+                .expectNext("{\"data\": \"url2\"}", "{\"data\": \"url2\"}", "{\"data\": \"url4\"}")
+                .verifyComplete();
+        System.out.println(fetches);
+        assertEquals(1, fetches("url1"));
+        assertEquals(1, fetches("url2"));
+        assertEquals(1, fetches("url4"));
+    }
+
+    @Test
+    void example_02_ErrorsAreShared() {
+        Flux<String> flux = Flux.just("url3", "url1", "url3")
+                .transform(InFlightCalls.flatMapDistinctKey(url -> url,
+                        url -> fetchData(url).onErrorResume(e -> Mono.just("FALLBACK " + url))));
+
+        StepVerifier.create(flux.sort())
+                .expectNext("FALLBACK url3", "FALLBACK url3", "{\"data\": \"url1\"}")
+                .verifyComplete();
+        assertEquals(1, fetches("url3"));
+
+        // Without a fallback in the inner publisher, the error goes to every element waiting for it
+        InFlightCalls<String, String> calls = InFlightCalls.create(this::fetchData);
+        StepVerifier.create(Mono.zip(calls.get("url3").onErrorReturn("ERROR 1"), calls.get("url3").onErrorReturn("ERROR 2")))
+                .assertNext(results -> assertEquals("ERROR 1", results.getT1()))
+                .verifyComplete();
+        System.out.println(calls);
+        assertEquals(1, calls.started());
+        assertEquals(1, calls.joined());
+    }
+
+    @Test
+    void example_03_NotCached() {
+        InFlightCalls<String, String> calls = InFlightCalls.create(this::fetchData);
+
+        // The keys are forgotten once their calls terminate
+        StepVerifier.create(Flux.just("url1", "url1").transform(calls.flatMap(url -> url, 8)))
+                .expectNextCount(2)
+                .verifyComplete();
+        assertEquals(0, calls.inFlight());
+        StepVerifier.create(calls.get("url1"))
+                .expectNext("{\"data\": \"url1\"}")
+                .verifyComplete();
+        System.out.println(calls);
+        assertEquals(2, fetches("url1"));
+        assertEquals(2, calls.started());
+    }
+
+    @Test
+    void example_04_Cancellation() {
+        InFlightCalls<String, String> calls = InFlightCalls.create(this::fetchData);
+
+        // One of the two requests cancels, the call goes on for the other one
+        StepVerifier.create(Mono.zip(calls.get("url1").timeout(Duration.ofMillis(10), Mono.just("TIMEOUT")), calls.get("url1")))
+                .assertNext(results -> assertEquals(List.of("TIMEOUT", "{\"data\": \"url1\"}"),
+                        List.of(results.getT1(), results.getT2())))
+                .verifyComplete();
+        assertEquals(0, cancels.get());
+
+        // Both cancel, so does the call
+        StepVerifier.create(Flux.merge(calls.get("url2"), calls.get("url2")))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(10))
+                .thenCancel()
+                .verify();
+        System.out.println(calls);
+        assertEquals(1, cancels.get());
+        assertEquals(1, calls.cancelled());
+        assertEquals(0, calls.inFlight());
+    }
+
+    @Test
+    void example_05_ManyRepeatedKeys() {
+        InFlightCalls<Integer, Integer> calls = InFlightCalls.create(key -> Mono.just(key * 10)
+                .delayElement(Duration.ofMillis(20)));
+
+        // 1000 elements with 10 distinct keys, only the keys in flight are kept
+        StepVerifier.create(Flux.range(0, 1_000)
+                        .map(i -> i % 10)
+                        .transform(calls.flatMap(key -> key, 100))
+                        .reduce(0, Integer::sum))
+                .expectNext(1_000 * 45)
+                .verifyComplete();
+        System.out.println(calls);
+        assertEquals(1_000, calls.started() + calls.joined());
+        assertEquals(0, calls.inFlight());
+    }
+}
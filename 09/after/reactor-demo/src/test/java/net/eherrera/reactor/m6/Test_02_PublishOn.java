@@ -1,16 +1,20 @@
 package net.eherrera.reactor.m6;
 
+import net.eherrera.reactor.scheduler.SchedulerRegistry;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.Scheduler;
 
 @TestMethodOrder(MethodOrderer.MethodName.class)
 public class Test_02_PublishOn {
+    private static final SchedulerRegistry SCHEDULERS = SchedulerRegistry.shared();
+
     @Test
     void example_01_publishOn() throws InterruptedException {
+        Scheduler singleScheduler = SCHEDULERS.single("singleScheduler");
         Flux.just(1, 2, 3, 4, 5)
                 .map(i -> {
                     System.out.format("map(%d) - %s\n",
@@ -18,7 +22,7 @@ public class Test_02_PublishOn {
                             Thread.currentThread().getName());
                     return i * 10;
                 })
-                .publishOn(Schedulers.newSingle("singleScheduler"))
+                .publishOn(singleScheduler)
                 .flatMap(i -> {
                     System.out.format("flatMap(%d) - %s\n",
                             i,
@@ -30,19 +34,22 @@ public class Test_02_PublishOn {
                         Thread.currentThread().getName())
                 );
         Thread.sleep(1000);
+        singleScheduler.dispose();
     }
 
     @Test
     void example_02_publishOn() throws InterruptedException {
+        Scheduler parallelScheduler = SCHEDULERS.parallel("parallelScheduler");
+        Scheduler singleScheduler = SCHEDULERS.single("singleScheduler");
         Flux.just(1, 2, 3, 4, 5)
-                .publishOn(Schedulers.newParallel("parallelScheduler"))
+                .publishOn(parallelScheduler)
                 .map(i -> {
                     System.out.format("map(%d) - %s\n",
                             i,
                             Thread.currentThread().getName());
                     return i * 10;
                 })
-                .publishOn(Schedulers.newSingle("singleScheduler"))
+                .publishOn(singleScheduler)
                 .flatMap(i -> {
                     System.out.format("flatMap(%d) - %s\n",
                             i,
@@ -54,12 +61,16 @@ public class Test_02_PublishOn {
                         Thread.currentThread().getName())
                 );
         Thread.sleep(1000);
+        parallelScheduler.dispose();
+        singleScheduler.dispose();
     }
 
     @Test
     void example_03_publishOn() throws InterruptedException {
+        Scheduler parallelScheduler = SCHEDULERS.parallel("parallelScheduler");
+        Scheduler singleScheduler = SCHEDULERS.single("singleScheduler");
         Flux.just(1, 2, 3, 4, 5)
-                .publishOn(Schedulers.newParallel("parallelScheduler"))
+                .publishOn(parallelScheduler)
                 .map(i -> {
                     System.out.format("map(%d) - %s\n",
                             i,
@@ -72,11 +83,13 @@ public class Test_02_PublishOn {
                             Thread.currentThread().getName());
                     return Mono.just(i * 10);
                 })
-                .publishOn(Schedulers.newSingle("singleScheduler"))
+                .publishOn(singleScheduler)
                 .subscribe(i -> System.out.format("subscribe(%d) - %s\n",
                         i,
                         Thread.currentThread().getName())
                 );
         Thread.sleep(1000);
+        parallelScheduler.dispose();
+        singleScheduler.dispose();
     }
 }
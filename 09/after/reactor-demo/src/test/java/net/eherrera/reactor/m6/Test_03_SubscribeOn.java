@@ -1,16 +1,20 @@
 package net.eherrera.reactor.m6;
 
+import net.eherrera.reactor.scheduler.SchedulerRegistry;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.Scheduler;
 
 @TestMethodOrder(MethodOrderer.MethodName.class)
 public class Test_03_SubscribeOn {
+    private static final SchedulerRegistry SCHEDULERS = SchedulerRegistry.shared();
+
     @Test
     void example_01_subscribeOn() throws InterruptedException {
+        Scheduler singleScheduler = SCHEDULERS.single("singleScheduler");
         Flux.just(1, 2, 3, 4, 5)
                 .map(i -> {
                     System.out.format("map(%d) - %s\n",
@@ -18,7 +22,7 @@ public class Test_03_SubscribeOn {
                             Thread.currentThread().getName());
                     return i * 10;
                 })
-                .subscribeOn(Schedulers.newSingle("singleScheduler"))
+                .subscribeOn(singleScheduler)
                 .flatMap(i -> {
                     System.out.format("flatMap(%d) - %s\n",
                             i,
@@ -30,10 +34,12 @@ public class Test_03_SubscribeOn {
                         Thread.currentThread().getName())
                 );
         Thread.sleep(1000);
+        singleScheduler.dispose();
     }
 
     @Test
     void example_02_subscribeOn() throws InterruptedException {
+        Scheduler singleScheduler = SCHEDULERS.single("singleScheduler");
         Flux.just(1, 2, 3, 4, 5)
                 .map(i -> {
                     System.out.format("map(%d) - %s\n",
@@ -47,16 +53,19 @@ public class Test_03_SubscribeOn {
                             Thread.currentThread().getName());
                     return Mono.just(i * 10);
                 })
-                .subscribeOn(Schedulers.newSingle("singleScheduler"))
+                .subscribeOn(singleScheduler)
                 .subscribe(i -> System.out.format("subscribe(%d) - %s\n",
                         i,
                         Thread.currentThread().getName())
                 );
         Thread.sleep(1000);
+        singleScheduler.dispose();
     }
 
     @Test
     void example_03_subscribeOn() throws InterruptedException {
+        Scheduler parallelScheduler = SCHEDULERS.parallel("parallelScheduler");
+        Scheduler singleScheduler = SCHEDULERS.single("singleScheduler");
         Flux.just(1, 2, 3, 4, 5)
                 .map(i -> {
                     System.out.format("map(%d) - %s\n",
@@ -64,8 +73,8 @@ public class Test_03_SubscribeOn {
                             Thread.currentThread().getName());
                     return i * 10;
                 })
-                .publishOn(Schedulers.newParallel("parallelScheduler"))
-                .subscribeOn(Schedulers.newSingle("singleScheduler"))
+                .publishOn(parallelScheduler)
+                .subscribeOn(singleScheduler)
                 .flatMap(i -> {
                     System.out.format("flatMap(%d) - %s\n",
                             i,
@@ -77,10 +86,14 @@ public class Test_03_SubscribeOn {
                         Thread.currentThread().getName())
                 );
         Thread.sleep(1000);
+        parallelScheduler.dispose();
+        singleScheduler.dispose();
     }
 
     @Test
     void example_04_subscribeOn() throws InterruptedException {
+        Scheduler parallelScheduler = SCHEDULERS.parallel("parallelScheduler");
+        Scheduler singleScheduler = SCHEDULERS.single("singleScheduler");
         Flux.just(1, 2, 3, 4, 5)
                 .map(i -> {
                     System.out.format("map(%d) - %s\n",
@@ -88,8 +101,8 @@ public class Test_03_SubscribeOn {
                             Thread.currentThread().getName());
                     return i * 10;
                 })
-                .subscribeOn(Schedulers.newParallel("parallelScheduler"))
-                .subscribeOn(Schedulers.newSingle("singleScheduler"))
+                .subscribeOn(parallelScheduler)
+                .subscribeOn(singleScheduler)
                 .flatMap(i -> {
                     System.out.format("flatMap(%d) - %s\n",
                             i,
@@ -101,5 +114,7 @@ public class Test_03_SubscribeOn {
                         Thread.currentThread().getName())
                 );
         Thread.sleep(1000);
+        parallelScheduler.dispose();
+        singleScheduler.dispose();
     }
 }
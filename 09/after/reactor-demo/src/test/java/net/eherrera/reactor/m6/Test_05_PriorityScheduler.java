@@ -0,0 +1,153 @@
+package net.eherrera.reactor.m6;
+
+import net.eherrera.reactor.scheduler.DeadlineExceededException;
+import net.eherrera.reactor.scheduler.PriorityScheduler;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_05_PriorityScheduler {
+    @Test
+    void example_01_Priority() throws InterruptedException {
+        PriorityScheduler scheduler = PriorityScheduler.create("priority", 1);
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+
+        // Keep the only thread busy so the next tasks have to wait in the queue
+        CountDownLatch busy = blockScheduler(scheduler);
+        scheduler.withPriority(9, null).schedule(() -> { order.add("batch"); done.countDown(); });
+        scheduler.withPriority(5, null).schedule(() -> { order.add("normal"); done.countDown(); });
+        scheduler.withPriority(PriorityScheduler.HIGHEST_PRIORITY, null)
+                .schedule(() -> { order.add("interactive"); done.countDown(); });
+        busy.countDown();
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertEquals(List.of("interactive", "normal", "batch"), order);
+        scheduler.dispose();
+    }
+
+    @Test
+    void example_02_Aging() throws InterruptedException {
+        PriorityScheduler scheduler = PriorityScheduler.create("priority", 1,
+                Duration.ofMillis(10), PriorityScheduler.LatePolicy.FLAG);
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+
+        CountDownLatch busy = blockScheduler(scheduler);
+        scheduler.withPriority(5, null).schedule(() -> { order.add("batch"); done.countDown(); });
+        // After waiting longer than 5 aging steps, the batch task goes before a new interactive one
+        Thread.sleep(100);
+        scheduler.withPriority(PriorityScheduler.HIGHEST_PRIORITY, null)
+                .schedule(() -> { order.add("interactive"); done.countDown(); });
+        busy.countDown();
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertEquals(List.of("batch", "interactive"), order);
+        scheduler.dispose();
+    }
+
+    @Test
+    void example_03_ContextPriority() {
+        PriorityScheduler scheduler = PriorityScheduler.create("priority", 2);
+
+        Flux<String> flux = Flux.just(1, 2, 3)
+                .map(i -> i + " - " + Thread.currentThread().getName())
+                .transform(scheduler.subscribeOn());
+
+        StepVerifier.create(flux.contextWrite(PriorityScheduler.priority(PriorityScheduler.HIGHEST_PRIORITY)))
+                .expectNextMatches(s -> s.startsWith("1 - priority-"))
+                .expectNextCount(2)
+                .verifyComplete();
+        scheduler.dispose();
+    }
+
+    @Test
+    void example_04_DropLate() {
+        PriorityScheduler scheduler = PriorityScheduler.create("priority", 1,
+                Duration.ofMillis(10), PriorityScheduler.LatePolicy.DROP);
+
+        CountDownLatch busy = blockScheduler(scheduler);
+        Mono<Integer> mono = Mono.just(1)
+                .transform(scheduler.subscribeOnMono())
+                .contextWrite(PriorityScheduler.deadline(Duration.ofMillis(50)));
+
+        StepVerifier.create(mono)
+                .then(() -> sleepAndRelease(busy, 200))
+                .expectError(DeadlineExceededException.class)
+                .verify(Duration.ofSeconds(1));
+        assertEquals(1, scheduler.droppedTasks());
+        scheduler.dispose();
+    }
+
+    @Test
+    void example_05_FlagLate() {
+        PriorityScheduler scheduler = PriorityScheduler.create("priority", 1);
+
+        CountDownLatch busy = blockScheduler(scheduler);
+        Mono<Integer> mono = Mono.just(1)
+                .transform(scheduler.subscribeOnMono())
+                .contextWrite(PriorityScheduler.deadline(Duration.ofMillis(50)));
+
+        StepVerifier.create(mono)
+                .then(() -> sleepAndRelease(busy, 200))
+                .expectNext(1)
+                .verifyComplete();
+        assertEquals(1, scheduler.lateTasks());
+        scheduler.dispose();
+    }
+
+    @Test
+    void example_06_PublishOn() {
+        PriorityScheduler scheduler = PriorityScheduler.create("priority", 2);
+
+        Flux<Integer> flux = Flux.range(1, 100)
+                .transform(scheduler.publishOn())
+                .map(i -> i * 10);
+
+        StepVerifier.create(flux.contextWrite(PriorityScheduler.priority(1)))
+                .expectNextSequence(Flux.range(1, 100).map(i -> i * 10).toIterable())
+                .verifyComplete();
+        scheduler.dispose();
+    }
+
+    CountDownLatch blockScheduler(PriorityScheduler scheduler) {
+        CountDownLatch busy = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        scheduler.withPriority(PriorityScheduler.HIGHEST_PRIORITY, null).schedule(() -> {
+            started.countDown();
+            try {
+                busy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            started.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return busy;
+    }
+
+    void sleepAndRelease(CountDownLatch busy, long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        busy.countDown();
+    }
+}
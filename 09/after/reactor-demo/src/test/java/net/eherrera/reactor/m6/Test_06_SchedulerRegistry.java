@@ -0,0 +1,129 @@
+package net.eherrera.reactor.m6;
+
+import net.eherrera.reactor.scheduler.SchedulerRegistry;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_06_SchedulerRegistry {
+    @Test
+    void example_01_SharedByName() {
+        SchedulerRegistry registry = new SchedulerRegistry(Duration.ZERO, false);
+        Scheduler scheduler1 = registry.single("singleScheduler");
+        Scheduler scheduler2 = registry.single("singleScheduler");
+
+        String thread1 = Mono.fromCallable(() -> Thread.currentThread().getName())
+                .subscribeOn(scheduler1)
+                .block();
+        String thread2 = Mono.fromCallable(() -> Thread.currentThread().getName())
+                .subscribeOn(scheduler2)
+                .block();
+        System.out.println(thread1 + " - " + thread2);
+
+        assertEquals(thread1, thread2);
+        assertEquals(2, registry.references("singleScheduler"));
+        scheduler1.dispose();
+        scheduler2.dispose();
+    }
+
+    @Test
+    void example_02_Reclaim() {
+        SchedulerRegistry registry = new SchedulerRegistry(Duration.ZERO, false);
+        List<String> reclaimed = new CopyOnWriteArrayList<>();
+        registry.addListener(new SchedulerRegistry.Listener() {
+            @Override
+            public void onReclaimed(String name) {
+                reclaimed.add(name);
+            }
+        });
+
+        Scheduler scheduler1 = registry.parallel("parallelScheduler");
+        Scheduler scheduler2 = registry.parallel("parallelScheduler");
+        scheduler1.dispose();
+        // Disposing the same handle twice only releases one reference
+        scheduler1.dispose();
+        assertEquals(Set.of("parallelScheduler"), registry.names());
+
+        scheduler2.dispose();
+        assertEquals(Set.of(), registry.names());
+        assertEquals(List.of("parallelScheduler"), reclaimed);
+    }
+
+    @Test
+    void example_03_IdleTimeout() throws InterruptedException {
+        SchedulerRegistry registry = new SchedulerRegistry(Duration.ofMillis(200), false);
+
+        registry.single("singleScheduler").dispose();
+        // Acquired again before the idle timeout, so the scheduler is reused
+        Scheduler scheduler = registry.single("singleScheduler");
+        Thread.sleep(400);
+        assertEquals(Set.of("singleScheduler"), registry.names());
+
+        scheduler.dispose();
+        Thread.sleep(400);
+        assertEquals(Set.of(), registry.names());
+    }
+
+    @Test
+    void example_04_KindMismatch() {
+        SchedulerRegistry registry = new SchedulerRegistry(Duration.ZERO, false);
+        Scheduler scheduler = registry.single("scheduler");
+
+        assertThrows(IllegalStateException.class, () -> registry.parallel("scheduler"));
+        scheduler.dispose();
+    }
+
+    @Test
+    void example_05_LeakDetection() throws InterruptedException {
+        SchedulerRegistry registry = new SchedulerRegistry(Duration.ZERO, true);
+        List<Throwable> leaks = new CopyOnWriteArrayList<>();
+        registry.addListener(new SchedulerRegistry.Listener() {
+            @Override
+            public void onLeak(String name, Throwable acquisitionSite) {
+                leaks.add(acquisitionSite);
+            }
+        });
+
+        // Never disposed
+        Mono.just(1).publishOn(registry.single("leakyScheduler")).block();
+
+        for (int i = 0; i < 50 && registry.leaks() == 0; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        assertEquals(1, registry.leaks());
+        assertEquals(1, leaks.size());
+        assertTrue(leaks.get(0).getMessage().contains("leakyScheduler"));
+        assertFalse(registry.names().contains("leakyScheduler"));
+    }
+
+    @Test
+    void example_06_Footprint() {
+        SchedulerRegistry registry = new SchedulerRegistry(Duration.ofSeconds(60), false);
+        int threadsBefore = Thread.activeCount();
+
+        for (int i = 0; i < 1000; i++) {
+            Scheduler scheduler = registry.single("singleScheduler");
+            Mono.just(i).publishOn(scheduler).block();
+            scheduler.dispose();
+        }
+
+        int threadsAfter = Thread.activeCount();
+        System.out.println("Threads before: " + threadsBefore + ", after: " + threadsAfter);
+        assertTrue(threadsAfter - threadsBefore <= 2);
+        registry.shutdown();
+    }
+}
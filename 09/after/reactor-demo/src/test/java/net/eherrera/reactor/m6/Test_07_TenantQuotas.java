@@ -0,0 +1,150 @@
+package net.eherrera.reactor.m6;
+
+import net.eherrera.reactor.scheduler.TenantQuotaExceededException;
+import net.eherrera.reactor.scheduler.TenantQuotaScheduler;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_07_TenantQuotas {
+    @Test
+    void example_01_NoisyTenant() throws InterruptedException {
+        Scheduler shared = Schedulers.newBoundedElastic(10, 100, "bounded-elastic", 30, true);
+        TenantQuotaScheduler quotas = TenantQuotaScheduler.create(shared, 2, 1);
+        List<String> results = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(4);
+
+        // The noisy tenant gets 2 threads and 1 queued task, its fourth call fails fast
+        for (int i = 1; i <= 4; i++) {
+            slowCall("noisy-" + i)
+                    .transform(quotas.subscribeOnMono())
+                    .contextWrite(TenantQuotaScheduler.tenant("noisy"))
+                    .subscribe(results::add,
+                            e -> {
+                                results.add(e.getCause().getClass().getSimpleName());
+                                done.countDown();
+                            },
+                            done::countDown);
+        }
+        assertEquals(2, quotas.activeThreads("noisy"));
+        assertEquals(1, quotas.queuedTasks("noisy"));
+
+        // Another tenant isn't affected
+        StepVerifier.create(Mono.fromCallable(() -> "quiet")
+                        .transform(quotas.subscribeOnMono())
+                        .contextWrite(TenantQuotaScheduler.tenant("quiet")))
+                .expectNext("quiet")
+                .expectComplete()
+                .verify(Duration.ofMillis(200));
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        System.out.println(results);
+        assertEquals(List.of("TenantQuotaExceededException", "noisy-1", "noisy-2", "noisy-3"),
+                results.stream().sorted().toList());
+        assertEquals(1, quotas.rejectedTasks("noisy"));
+        // The slot is released right after the task signals, give it a moment
+        for (int i = 0; i < 50 && quotas.activeThreads("noisy") > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, quotas.activeThreads("noisy"));
+        shared.dispose();
+    }
+
+    @Test
+    void example_02_FastFail() {
+        Scheduler shared = Schedulers.newBoundedElastic(10, 100, "bounded-elastic", 30, true);
+        TenantQuotaScheduler quotas = TenantQuotaScheduler.create(shared, 1, 0);
+
+        CompletableFuture<String> first = slowCall("first")
+                .transform(quotas.subscribeOnMono())
+                .contextWrite(TenantQuotaScheduler.tenant("tenant"))
+                .toFuture();
+
+        StepVerifier.create(slowCall("second")
+                        .transform(quotas.subscribeOnMono())
+                        .contextWrite(TenantQuotaScheduler.tenant("tenant")))
+                .expectErrorMatches(e -> e.getCause() instanceof TenantQuotaExceededException)
+                .verify(Duration.ofMillis(100));
+        // Disposing the scheduler while the first call sleeps would interrupt it
+        assertEquals("first", first.join());
+        shared.dispose();
+    }
+
+    @Test
+    void example_03_PublishOn() {
+        Scheduler shared = Schedulers.newBoundedElastic(10, 100, "bounded-elastic", 30, true);
+        TenantQuotaScheduler quotas = TenantQuotaScheduler.create(shared, 1, 10);
+
+        Flux<Integer> flux = Flux.range(1, 5)
+                .transform(quotas.publishOn())
+                .map(i -> i * 10);
+
+        // Both subscriptions share a single thread: the second one waits for the first one to finish
+        StepVerifier.create(Flux.merge(flux, flux)
+                        .contextWrite(TenantQuotaScheduler.tenant("tenant")))
+                .expectNextCount(10)
+                .verifyComplete();
+        shared.dispose();
+    }
+
+    @Test
+    void example_04_DisposeRunningTask() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        TenantQuotaScheduler quotas = TenantQuotaScheduler.create(Schedulers.fromExecutor(executor), 1, 1);
+        Scheduler tenant = quotas.forTenant("tenant");
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch secondRan = new CountDownLatch(1);
+
+        // A task that doesn't stop when it's interrupted
+        Disposable first = tenant.schedule(() -> {
+            running.countDown();
+            while (release.getCount() > 0) {
+                Thread.onSpinWait();
+            }
+        });
+        assertTrue(running.await(1, TimeUnit.SECONDS));
+
+        // Disposed while it runs, it keeps its slot until it returns
+        first.dispose();
+        assertEquals(1, quotas.activeThreads("tenant"));
+        tenant.schedule(secondRan::countDown);
+        assertEquals(1, quotas.queuedTasks("tenant"));
+        assertFalse(secondRan.await(100, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        assertTrue(secondRan.await(1, TimeUnit.SECONDS));
+        for (int i = 0; i < 50 && quotas.activeThreads("tenant") > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, quotas.activeThreads("tenant"));
+        executor.shutdown();
+    }
+
+    Mono<String> slowCall(String value) {
+        return Mono.fromCallable(() -> {
+            Thread.sleep(300);
+            return value;
+        });
+    }
+}
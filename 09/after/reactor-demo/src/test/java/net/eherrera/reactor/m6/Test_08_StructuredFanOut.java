@@ -0,0 +1,90 @@
+package net.eherrera.reactor.m6;
+
+import net.eherrera.reactor.parallel.StructuredFanOut;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_08_StructuredFanOut {
+    @Test
+    void example_01_groups() {
+        Flux<List<Integer>> flux = Flux.just(1, 2, 3, 4, 5, 6)
+                .parallel(2)
+                .as(StructuredFanOut.fanOut(i -> {
+                    System.out.format("work(%d) - %s\n",
+                            i,
+                            Thread.currentThread().getName());
+                    // Blocking sub-work
+                    Thread.sleep(100);
+                    return i * 10;
+                }));
+
+        StepVerifier.create(flux.sort((l1, l2) -> l1.get(0) - l2.get(0)))
+                .expectNext(List.of(10, 30, 50))
+                .expectNext(List.of(20, 40, 60))
+                .verifyComplete();
+    }
+
+    @Test
+    void example_02_CancelSiblings() throws InterruptedException {
+        AtomicInteger interrupted = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        CountDownLatch sleeping = new CountDownLatch(9);
+
+        Flux<List<Integer>> flux = Flux.range(1, 10)
+                .parallel(1)
+                .as(StructuredFanOut.fanOut(i -> {
+                    if (i == 5) {
+                        // Fails once its nine siblings are sleeping
+                        sleeping.await();
+                        throw new IllegalStateException("Subtask " + i + " failed");
+                    }
+                    sleeping.countDown();
+                    try {
+                        Thread.sleep(5000);
+                    } catch (InterruptedException e) {
+                        interrupted.incrementAndGet();
+                        throw e;
+                    }
+                    completed.incrementAndGet();
+                    return i;
+                }));
+
+        // The first failure is signaled right away, without waiting for the sleeping siblings
+        StepVerifier.create(flux)
+                .expectErrorMessage("Subtask 5 failed")
+                .verify(Duration.ofSeconds(1));
+
+        // And the siblings are interrupted instead of sleeping on
+        for (int i = 0; i < 100 && interrupted.get() < 9; i++) {
+            Thread.sleep(10);
+        }
+        System.out.println("Interrupted subtasks: " + interrupted.get());
+        assertEquals(9, interrupted.get());
+        assertEquals(0, completed.get());
+    }
+
+    @Test
+    void example_03_HeavyFanOut() {
+        System.out.println("Virtual threads: " + StructuredFanOut.usesVirtualThreads());
+
+        Flux<Long> sums = Flux.range(1, 100_000)
+                .parallel(4)
+                .as(StructuredFanOut.fanOut(i -> (long) i))
+                .map(list -> list.stream().mapToLong(Long::longValue).sum());
+
+        StepVerifier.create(sums.reduce(Long::sum))
+                .expectNext(100_000L * 100_001L / 2)
+                .verifyComplete();
+    }
+}
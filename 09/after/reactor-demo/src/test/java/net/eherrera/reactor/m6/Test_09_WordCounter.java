@@ -0,0 +1,174 @@
+package net.eherrera.reactor.m6;
+
+import net.eherrera.reactor.blocking.ByteBufferPool;
+import net.eherrera.reactor.parallel.WordCounter;
+import net.eherrera.reactor.parallel.WordCounts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_09_WordCounter {
+    static final String[] WORDS = {"reactor", "Flux", "mono", "scheduler", "back-pressure", "rail", "x", "na\u00efve"};
+
+    @TempDir
+    Path dir;
+
+    // Small chunks, so words end at the boundary of many of them
+    final ByteBufferPool pool = ByteBufferPool.create(64, 16);
+    final WordCounter counter = WordCounter.create(2, 3, pool, Schedulers.parallel());
+
+    @AfterEach
+    void checkLeaks() {
+        System.out.println(pool);
+        assertEquals(0, pool.outstanding());
+        assertEquals(0, pool.leaks());
+    }
+
+    List<Path> files(int count, int words) throws IOException {
+        List<Path> files = new ArrayList<>();
+        Random random = new Random(count);
+        for (int f = 0; f < count; f++) {
+            StringBuilder text = new StringBuilder();
+            for (int w = 0; w < words; w++) {
+                text.append(WORDS[random.nextInt(WORDS.length)])
+                        .append(random.nextInt(10) == 0 ? ",\n" : " ");
+            }
+            files.add(Files.writeString(dir.resolve("file-" + f + ".txt"), text));
+        }
+        return files;
+    }
+
+    // The same words with String.split, the reference
+    static Map<String, Long> splitCount(List<Path> files) throws IOException {
+        Map<String, Long> counts = new HashMap<>();
+        for (Path file : files) {
+            for (String word : Files.readString(file).toLowerCase().split("[^\\p{Alnum}\\u0080-\\uffff]+")) {
+                if (!word.isEmpty()) {
+                    counts.merge(word, 1L, Long::sum);
+                }
+            }
+        }
+        return counts;
+    }
+
+    @Test
+    void example_01_CountWords() throws IOException {
+        Path file = Files.writeString(dir.resolve("text.txt"), "The flux, the Mono\nand THE scheduler.");
+
+        StepVerifier.create(counter.countWords(Flux.just(file)))
+                .assertNext(counts -> {
+                    System.out.println(counts);
+                    assertEquals(7, counts.total());
+                    assertEquals(5, counts.distinct());
+                    assertEquals(3, counts.count("the"));
+                    assertEquals(1, counts.count("Scheduler"));
+                    assertEquals(0, counts.count("rail"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void example_02_ManyFiles() throws IOException {
+        List<Path> files = files(10, 2_000);
+        Map<String, Long> expected = splitCount(files);
+
+        StepVerifier.create(counter.countWords(Flux.fromIterable(files)))
+                .assertNext(counts -> {
+                    System.out.println(counts);
+                    assertEquals(expected, counts.toMap());
+                    assertEquals(expected.values().stream().mapToLong(Long::longValue).sum(), counts.total());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void example_03_LongWords() throws IOException {
+        // Longer than a chunk, it's split (and counted as two words), the rest isn't affected
+        String longWord = "a".repeat(100);
+        Path file = Files.writeString(dir.resolve("long.txt"), "short " + longWord + " short");
+
+        StepVerifier.create(counter.countWords(Flux.just(file)))
+                .assertNext(counts -> {
+                    assertEquals(2, counts.count("short"));
+                    assertEquals(4, counts.total());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void example_04_Merge() {
+        WordCounts first = new WordCounts();
+        first.scan(ByteBuffer.wrap("a b b".getBytes()));
+        WordCounts second = new WordCounts();
+        second.scan(ByteBuffer.wrap("b c".getBytes()));
+
+        WordCounts merged = first.merge(second);
+        System.out.println(merged);
+        assertEquals(Map.of("a", 1L, "b", 3L, "c", 1L), merged.toMap());
+        assertEquals("b", merged.top(1).get(0).getKey());
+    }
+
+    @Test
+    void example_05_Errors() throws IOException {
+        List<Path> files = new ArrayList<>(files(3, 1_000));
+        files.add(dir.resolve("missing.txt"));
+
+        StepVerifier.create(counter.countWords(Flux.fromIterable(files)))
+                .expectError(NoSuchFileException.class)
+                .verify();
+
+        // The chunks already read are released, by the rails and the readers that are cancelled
+        // after the error, on their own threads
+        long deadline = System.currentTimeMillis() + 1_000;
+        while (pool.outstanding() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @Test
+    void example_06_Empty() {
+        StepVerifier.create(counter.countWords(Flux.empty()))
+                .assertNext(counts -> assertEquals(0, counts.total()))
+                .verifyComplete();
+    }
+
+    @Test
+    void example_07_NonAsciiCase() {
+        // Only ASCII letters are lowercased, in the text and in the word looked up, so the
+        // default locale doesn't matter (in Turkish, "TITLE".toLowerCase() has a dotless i)
+        WordCounts counts = new WordCounts()
+                .scan(ByteBuffer.wrap("\u00c9clair \u00c9clair \u00e9clair TITLE".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, counts.count("\u00c9clair"));
+        assertEquals(2, counts.count("\u00c9CLAIR"));
+        assertEquals(1, counts.count("\u00e9clair"));
+        Locale locale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.forLanguageTag("tr"));
+            assertEquals(1, counts.count("TITLE"));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+}
@@ -1,11 +1,12 @@
 package net.eherrera.reactor.m7;
 
+import net.eherrera.reactor.scheduler.SchedulerRegistry;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.Scheduler;
 import reactor.util.context.Context;
 
 @TestMethodOrder(MethodOrderer.MethodName.class)
@@ -31,9 +32,10 @@ public class Test_01_Context {
     @Test
     void example_02_PublishOn() {
         String key = "multiplier";
+        Scheduler parallelScheduler = SchedulerRegistry.shared().parallel("parallel");
         Flux<Integer> fluxInteger = Flux.just(1, 2, 3, 4, 5)
                 .map(i -> i * 10)
-                .publishOn(Schedulers.newParallel("parallel"))
+                .publishOn(parallelScheduler)
                 .transformDeferredContextual(
                         (flux, ctx) ->
                                 flux.map(i -> i * ctx.getOrDefault(key, 1))
@@ -41,6 +43,7 @@ public class Test_01_Context {
 
         fluxInteger
                 .contextWrite(Context.of(key, 10))
+                .doFinally(signalType -> parallelScheduler.dispose())
                 .subscribe(System.out::println);
     }
 
@@ -0,0 +1,97 @@
+package net.eherrera.reactor.m7;
+
+import net.eherrera.reactor.context.ContextKey;
+import net.eherrera.reactor.context.LongContextKey;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_02_TypedContext {
+    static final LongContextKey MULTIPLIER = ContextKey.ofLong("multiplier");
+    static final ContextKey<String> USER = ContextKey.of("user");
+
+    @Test
+    void example_01_TransformDeferredContextual() {
+        Flux<Long> fluxLong = Flux.just(1L, 2L, 3L, 4L, 5L)
+                .map(i -> i * 10)
+                .transformDeferredContextual(
+                        (flux, ctx) ->
+                                flux.map(i -> i * MULTIPLIER.getLong(ctx, 1))
+                );
+
+        StepVerifier.create(fluxLong.contextWrite(MULTIPLIER.withLong(10)))
+                .expectNext(100L, 200L, 300L, 400L, 500L)
+                .verifyComplete();
+        StepVerifier.create(fluxLong.contextWrite(MULTIPLIER.withLong(100)))
+                .expectNext(1000L, 2000L, 3000L, 4000L, 5000L)
+                .verifyComplete();
+    }
+
+    @Test
+    void example_02_DeferContextual() {
+        Flux<String> flux = Flux.just(1, 2, 3)
+                .flatMap(i -> Mono.deferContextual(ctx ->
+                        Mono.just(USER.get(ctx) + ":" + i * MULTIPLIER.getLong(ctx, 1))))
+                .contextWrite(MULTIPLIER.withLong(10))
+                .contextWrite(USER.with("alice"));
+
+        StepVerifier.create(flux)
+                .expectNext("alice:10", "alice:20", "alice:30")
+                .verifyComplete();
+    }
+
+    @Test
+    void example_03_ContextPlacement() {
+        // As in example_05 of Test_01_Context, the write closest to the reader wins
+        Mono<Long> mono = Mono.deferContextual(ctx -> Mono.just(MULTIPLIER.getLong(ctx, 1)))
+                .contextWrite(MULTIPLIER.withLong(100))
+                .contextWrite(MULTIPLIER.withLong(10));
+
+        StepVerifier.create(mono)
+                .expectNext(100L)
+                .verifyComplete();
+    }
+
+    @Test
+    void example_04_MixedKeys() {
+        // Typed keys and regular keys in the same Context
+        Mono<String> mono = Mono.deferContextual(ctx -> {
+                    System.out.println(ctx);
+                    return Mono.just(USER.get(ctx) + "/" + ctx.get("tenant") + "/" + ctx.size());
+                })
+                .contextWrite(USER.with("alice"))
+                .contextWrite(Context.of("tenant", "acme"));
+
+        StepVerifier.create(mono)
+                .expectNext("alice/acme/2")
+                .verifyComplete();
+    }
+
+    @Test
+    void example_05_RegularContext() {
+        // Typed keys can also be read from (and written to) a regular Context
+        Context ctx = Context.of(USER, "bob", MULTIPLIER, 3L);
+        assertEquals("bob", USER.get(ctx));
+        assertEquals(3L, MULTIPLIER.getLong(ctx, 1));
+
+        Context indexed = MULTIPLIER.putLong(ctx, 5);
+        assertEquals("bob", USER.get(indexed));
+        assertEquals(5L, MULTIPLIER.getLong(indexed, 1));
+        assertEquals(5L, (Long) indexed.get(MULTIPLIER));
+        assertEquals(2, indexed.size());
+
+        Context deleted = indexed.delete(USER);
+        assertFalse(USER.isPresent(deleted));
+        assertTrue(MULTIPLIER.isPresent(deleted));
+        assertEquals(1, deleted.size());
+    }
+}
@@ -0,0 +1,145 @@
+package net.eherrera.reactor.m7;
+
+import net.eherrera.reactor.context.ContextKey;
+import net.eherrera.reactor.context.ThreadLocalPropagation;
+import net.eherrera.reactor.scheduler.SchedulerRegistry;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_03_ThreadLocalPropagation {
+    static final ContextKey<String> USER = ContextKey.of("user");
+
+    // Counts the calls to set, to check that restores are incremental
+    static final AtomicInteger sets = new AtomicInteger();
+    static final ThreadLocal<String> TRACE_ID = new ThreadLocal<>() {
+        @Override
+        public void set(String value) {
+            sets.incrementAndGet();
+            super.set(value);
+        }
+    };
+    static final ThreadLocal<String> CURRENT_USER = new ThreadLocal<>();
+
+    final ThreadLocalPropagation propagation = ThreadLocalPropagation.create()
+            .propagate("traceId", TRACE_ID)
+            .propagate(USER, CURRENT_USER);
+
+    @Test
+    void example_01_PublishOn() {
+        Scheduler parallelScheduler = SchedulerRegistry.shared().parallel("parallel");
+        Flux<String> flux = Flux.just(1, 2, 3, 4, 5)
+                .publishOn(parallelScheduler)
+                .transform(propagation.restore())
+                // Like a logging library reading the MDC
+                .map(i -> Thread.currentThread().getName().startsWith("parallel")
+                        + ":" + TRACE_ID.get() + ":" + CURRENT_USER.get() + ":" + i);
+
+        StepVerifier.create(flux
+                        .contextWrite(Context.of("traceId", "abc"))
+                        .contextWrite(USER.with("alice")))
+                .expectNext("true:abc:alice:1", "true:abc:alice:2", "true:abc:alice:3",
+                        "true:abc:alice:4", "true:abc:alice:5")
+                .verifyComplete();
+        parallelScheduler.dispose();
+    }
+
+    @Test
+    void example_02_Scoped() {
+        Scheduler single = SchedulerRegistry.shared().single("single");
+        TRACE_ID.set("caller");
+
+        Flux<String> flux = Flux.range(1, 100)
+                .publishOn(single)
+                .transform(propagation.restore())
+                .map(i -> TRACE_ID.get());
+
+        // The values are set for the signals only, the caller of subscribe gets its own back
+        StepVerifier.create(flux.contextWrite(Context.of("traceId", "abc")))
+                .expectNextCount(100)
+                .verifyComplete();
+        assertEquals("caller", TRACE_ID.get());
+
+        // And so does the worker, nothing is left on it
+        assertEquals("null", Mono.fromCallable(() -> String.valueOf(TRACE_ID.get()))
+                .subscribeOn(single)
+                .block());
+
+        // Unchanged keys aren't set again: once on this thread for onSubscribe (and once to put
+        // "caller" back), once on the worker for the whole sequence, whatever its length
+        sets.set(0);
+        StepVerifier.create(flux.contextWrite(Context.of("traceId", "xyz")))
+                .expectNext("xyz")
+                .expectNextCount(99)
+                .verifyComplete();
+        assertEquals(3, sets.get());
+
+        // Nested restores with the same values don't set them again either
+        sets.set(0);
+        StepVerifier.create(flux.transform(propagation.restore()).contextWrite(Context.of("traceId", "xyz")))
+                .expectNextCount(100)
+                .verifyComplete();
+        assertEquals(3, sets.get());
+
+        // A synchronous source emits inside onSubscribe, its signals share the scope
+        sets.set(0);
+        StepVerifier.create(Flux.range(1, 100)
+                        .transform(propagation.restore())
+                        .map(i -> TRACE_ID.get())
+                        .contextWrite(Context.of("traceId", "abc")))
+                .expectNext("abc")
+                .expectNextCount(99)
+                .verifyComplete();
+        assertEquals(2, sets.get());
+        assertEquals("caller", TRACE_ID.get());
+        TRACE_ID.remove();
+        single.dispose();
+    }
+
+    @Test
+    void example_03_MissingKey() {
+        // A key that isn't in the Context resets its ThreadLocal during the signals
+        CURRENT_USER.set("stale");
+
+        StepVerifier.create(Mono.fromCallable(() -> String.valueOf(CURRENT_USER.get()))
+                        .transform(propagation.restoreMono())
+                        .contextWrite(Context.of("traceId", "abc")))
+                .expectNext("null")
+                .verifyComplete();
+        assertEquals("stale", CURRENT_USER.get());
+        propagation.clear();
+        assertNull(CURRENT_USER.get());
+        assertNull(TRACE_ID.get());
+    }
+
+    @Test
+    void example_04_OtherWriters() {
+        Scheduler single = SchedulerRegistry.shared().single("single");
+
+        // Code that writes the ThreadLocal between signals doesn't fool the next restore
+        Flux<String> flux = Flux.range(1, 5)
+                .publishOn(single)
+                .transform(propagation.restore())
+                .map(i -> {
+                    String traceId = TRACE_ID.get();
+                    TRACE_ID.set("other");
+                    return traceId;
+                });
+
+        StepVerifier.create(flux.contextWrite(Context.of("traceId", "abc")))
+                .expectNext("abc", "abc", "abc", "abc", "abc")
+                .verifyComplete();
+        single.dispose();
+    }
+}
@@ -0,0 +1,111 @@
+package net.eherrera.reactor.m7;
+
+import net.eherrera.reactor.context.AssemblyCache;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_04_AssemblyCache {
+    @Test
+    void example_01_TransformDeferredContextual() {
+        String key = "multiplier";
+        AssemblyCache cache = AssemblyCache.keyedBy(key);
+        AtomicInteger assemblies = new AtomicInteger();
+
+        Flux<Integer> fluxInteger = Flux.just(1, 2, 3, 4, 5)
+                .map(i -> i * 10)
+                .transform(cache.transformDeferredContextual(
+                        (flux, ctx) -> {
+                            assemblies.incrementAndGet();
+                            return flux.map(i -> i * ctx.getOrDefault(key, 1));
+                        }));
+
+        for (int i = 0; i < 10; i++) {
+            StepVerifier.create(fluxInteger.contextWrite(Context.of(key, 10)))
+                    .expectNext(100, 200, 300, 400, 500)
+                    .verifyComplete();
+            StepVerifier.create(fluxInteger.contextWrite(Context.of(key, 100)))
+                    .expectNext(1000, 2000, 3000, 4000, 5000)
+                    .verifyComplete();
+        }
+        System.out.println(cache);
+        // Assembled once per distinct value, not once per subscription
+        assertEquals(2, assemblies.get());
+        assertEquals(18, cache.hits());
+    }
+
+    @Test
+    void example_02_Mono() {
+        String key = "username";
+        AssemblyCache cache = AssemblyCache.keyedBy(key);
+
+        // Exercise03
+        Mono<String> contextualizedGreetingMono = Mono.just("Hello")
+                .transform(cache.transformDeferredContextualMono(
+                        (original, ctx) -> original.map(greeting -> greeting + ", " + ctx.get(key))));
+
+        StepVerifier.create(contextualizedGreetingMono.contextWrite(Context.of(key, "Alice")))
+                .expectNext("Hello, Alice")
+                .verifyComplete();
+        StepVerifier.create(contextualizedGreetingMono.contextWrite(Context.of(key, "Bob")))
+                .expectNext("Hello, Bob")
+                .verifyComplete();
+        StepVerifier.create(contextualizedGreetingMono.contextWrite(Context.of(key, "Alice")))
+                .expectNext("Hello, Alice")
+                .verifyComplete();
+        assertEquals(2, cache.misses());
+        assertEquals(1, cache.hits());
+    }
+
+    @Test
+    void example_03_OnlyTheKeys() {
+        AssemblyCache cache = AssemblyCache.keyedBy("tenant", "divider");
+
+        // The transformer only sees the keys of the cache, "requestId" changes every time
+        Flux<String> flux = Flux.range(1, 2)
+                .transform(cache.transformDeferredContextual(
+                        (f, ctx) -> {
+                            assertFalse(ctx.hasKey("requestId"));
+                            return f.map(i -> ctx.get("tenant") + ":" + i / ctx.getOrDefault("divider", 1.0));
+                        }));
+
+        for (int i = 0; i < 5; i++) {
+            StepVerifier.create(flux.contextWrite(Context.of("tenant", "acme", "divider", 2.0, "requestId", i)))
+                    .expectNext("acme:0.5", "acme:1.0")
+                    .verifyComplete();
+        }
+        // Without divider it's another entry
+        StepVerifier.create(flux.contextWrite(Context.of("tenant", "acme")))
+                .expectNext("acme:1.0", "acme:2.0")
+                .verifyComplete();
+        assertEquals(2, cache.misses());
+        assertEquals(4, cache.hits());
+    }
+
+    @Test
+    void example_04_Full() {
+        AssemblyCache cache = AssemblyCache.create(2, "multiplier");
+        Flux<Integer> flux = Flux.just(1)
+                .transform(cache.transformDeferredContextual(
+                        (f, ctx) -> f.map(i -> i * ctx.getOrDefault("multiplier", 1))));
+
+        // Too many distinct values, the others are assembled every time
+        for (int i = 1; i <= 4; i++) {
+            StepVerifier.create(flux.contextWrite(Context.of("multiplier", i)))
+                    .expectNext(i)
+                    .verifyComplete();
+        }
+        assertEquals(2, cache.misses());
+        assertEquals(2, cache.uncached());
+    }
+}
@@ -0,0 +1,135 @@
+package net.eherrera.reactor.m8;
+
+import net.eherrera.reactor.blocking.Interruptible;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_03_Interruptible {
+    @Test
+    void example_01_Timeout() throws InterruptedException {
+        Interruptible interruptible = Interruptible.create(Schedulers.boundedElastic());
+
+        Mono<String> blockingMono = interruptible.fromCallable(() -> {
+                    // Simulate a blocking operation
+                    Thread.sleep(3000);
+                    return "Blocking operation completed";
+                })
+                .timeout(Duration.ofMillis(100));
+
+        StepVerifier.create(blockingMono)
+                .verifyError(TimeoutException.class);
+        // The thread is free right away, not after three seconds
+        Thread.sleep(100);
+        System.out.println(interruptible);
+        assertEquals(0, interruptible.running());
+        assertEquals(1, interruptible.interrupted());
+    }
+
+    @Test
+    void example_02_TimeoutStorm() throws InterruptedException {
+        Scheduler scheduler = Schedulers.newBoundedElastic(4, 1000, "storm");
+        Interruptible interruptible = Interruptible.create(scheduler);
+
+        // Only four threads, twenty tasks that would take three seconds each
+        Flux<String> flux = Flux.range(1, 20)
+                .flatMap(i -> interruptible.fromCallable(() -> {
+                            Thread.sleep(3000);
+                            return "Task " + i;
+                        })
+                        .timeout(Duration.ofMillis(50))
+                        .onErrorReturn(TimeoutException.class, "Timeout " + i));
+
+        // Without interrupting them, it would take fifteen seconds to free the threads
+        Duration duration = StepVerifier.create(flux)
+                .expectNextCount(20)
+                .verifyComplete();
+        Thread.sleep(100);
+        System.out.println(interruptible + " in " + duration);
+        assertTrue(duration.compareTo(Duration.ofSeconds(1)) < 0);
+        // Every task was either interrupted or never started
+        assertEquals(20, interruptible.interrupted() + interruptible.cancelledBeforeStart());
+        assertEquals(0, interruptible.abandoned());
+        assertEquals(0, interruptible.running());
+        scheduler.dispose();
+    }
+
+    @Test
+    void example_03_Abandoned() throws InterruptedException {
+        Interruptible interruptible = Interruptible.create(Schedulers.boundedElastic());
+
+        // Busy code that never checks the interrupt
+        Mono<Long> busyMono = interruptible.fromCallable(() -> {
+                    long end = System.nanoTime() + Duration.ofMillis(300).toNanos();
+                    long iterations = 0;
+                    while (System.nanoTime() < end) {
+                        iterations++;
+                    }
+                    return iterations;
+                })
+                .timeout(Duration.ofMillis(50));
+
+        StepVerifier.create(busyMono)
+                .verifyError(TimeoutException.class);
+        Thread.sleep(400);
+        System.out.println(interruptible);
+        assertEquals(1, interruptible.abandoned());
+    }
+
+    @Test
+    void example_04_CancellationToken() throws InterruptedException {
+        Interruptible interruptible = Interruptible.create(Schedulers.boundedElastic());
+
+        // Code that can't be interrupted checks the token between steps
+        Mono<Integer> cooperativeMono = interruptible.fromCancellable(token -> {
+                    int step = 0;
+                    while (step < 100) {
+                        token.throwIfCancelled();
+                        busyWait(Duration.ofMillis(10));
+                        step++;
+                    }
+                    return step;
+                })
+                .timeout(Duration.ofMillis(50));
+
+        StepVerifier.create(cooperativeMono)
+                .verifyError(TimeoutException.class);
+        Thread.sleep(100);
+        System.out.println(interruptible);
+        assertEquals(0, interruptible.running());
+        assertEquals(1, interruptible.interrupted());
+    }
+
+    @Test
+    void example_05_NoTimeout() {
+        Interruptible interruptible = Interruptible.create(Schedulers.boundedElastic());
+
+        StepVerifier.create(interruptible.fromCallable(() -> "Blocking operation completed"))
+                .expectNext("Blocking operation completed")
+                .verifyComplete();
+        StepVerifier.create(interruptible.fromCallable(() -> {
+                    throw new IllegalStateException("Failed");
+                }))
+                .verifyErrorMessage("Failed");
+        assertEquals(2, interruptible.completed());
+    }
+
+    static void busyWait(Duration duration) {
+        long end = System.nanoTime() + duration.toNanos();
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+}
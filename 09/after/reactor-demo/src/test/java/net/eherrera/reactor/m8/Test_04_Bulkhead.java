@@ -0,0 +1,166 @@
+package net.eherrera.reactor.m8;
+
+import net.eherrera.reactor.resilience.Bulkhead;
+import net.eherrera.reactor.resilience.BulkheadFullException;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_04_Bulkhead {
+    private static Mono<String> blockingCall(int i, long millis, AtomicInteger inProgress, AtomicInteger maxInProgress) {
+        return Mono.fromCallable(() -> {
+                    maxInProgress.accumulateAndGet(inProgress.incrementAndGet(), Math::max);
+                    try {
+                        // Simulate a blocking operation
+                        Thread.sleep(millis);
+                        return "Call " + i;
+                    } finally {
+                        inProgress.decrementAndGet();
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Test
+    void example_01_BoundedConcurrency() {
+        Bulkhead bulkhead = Bulkhead.create("fileSystem", 3, 20, Duration.ofSeconds(5));
+        AtomicInteger inProgress = new AtomicInteger();
+        AtomicInteger maxInProgress = new AtomicInteger();
+
+        // flatMap subscribes to all of them, the bulkhead lets three in at a time
+        Flux<String> flux = Flux.range(1, 12)
+                .flatMap(i -> blockingCall(i, 50, inProgress, maxInProgress)
+                        .transform(bulkhead.protectMono()));
+
+        StepVerifier.create(flux)
+                .expectNextCount(12)
+                .verifyComplete();
+        System.out.println(bulkhead);
+        assertEquals(3, maxInProgress.get());
+        assertEquals(0, bulkhead.active());
+        assertEquals(0, bulkhead.queued());
+    }
+
+    @Test
+    void example_02_FailFastWhenFull() {
+        Bulkhead bulkhead = Bulkhead.create("fileSystem", 2, 3, Duration.ofSeconds(5));
+        AtomicInteger inProgress = new AtomicInteger();
+        AtomicInteger maxInProgress = new AtomicInteger();
+
+        // Two in progress, three waiting, the other five are rejected right away
+        Flux<String> flux = Flux.range(1, 10)
+                .flatMap(i -> blockingCall(i, 200, inProgress, maxInProgress)
+                        .transform(bulkhead.protectMono())
+                        .onErrorReturn(BulkheadFullException.class, "Rejected " + i));
+
+        // The rejections arrive right away, before the first call completes
+        StepVerifier.create(flux)
+                .expectNext("Rejected 6", "Rejected 7", "Rejected 8", "Rejected 9", "Rejected 10")
+                .expectNextCount(5)
+                .verifyComplete();
+        System.out.println(bulkhead);
+        assertEquals(5, bulkhead.rejected());
+        assertEquals(2, maxInProgress.get());
+    }
+
+    @Test
+    void example_03_WaitTimeout() {
+        Bulkhead bulkhead = Bulkhead.create("fileSystem", 1, 10, Duration.ofMillis(100));
+        AtomicInteger inProgress = new AtomicInteger();
+        AtomicInteger maxInProgress = new AtomicInteger();
+
+        // The first call takes longer than the others are willing to wait
+        Flux<String> flux = Flux.range(1, 4)
+                .flatMap(i -> blockingCall(i, 300, inProgress, maxInProgress)
+                        .transform(bulkhead.protectMono())
+                        .onErrorReturn(BulkheadFullException.class, "Timeout " + i));
+
+        StepVerifier.create(flux)
+                .expectNext("Timeout 2", "Timeout 3", "Timeout 4")
+                .expectNext("Call 1")
+                .verifyComplete();
+        System.out.println(bulkhead);
+        assertEquals(3, bulkhead.timedOut());
+        assertEquals(0, bulkhead.active());
+        assertEquals(0, bulkhead.queued());
+    }
+
+    @Test
+    void example_04_WaitersDontHoldThreads() {
+        Bulkhead bulkhead = Bulkhead.create("fileSystem", 2, 100, Duration.ofSeconds(5));
+        AtomicInteger inProgress = new AtomicInteger();
+        AtomicInteger maxInProgress = new AtomicInteger();
+
+        // Forty calls offloaded to boundedElastic, but only two elastic threads are busy at a time
+        Flux<String> flux = Flux.range(1, 40)
+                .flatMap(i -> blockingCall(i, 10, inProgress, maxInProgress)
+                        .transform(bulkhead.protectMono()));
+
+        StepVerifier.create(flux)
+                .expectNextCount(40)
+                .verifyComplete();
+        System.out.println(bulkhead);
+        assertEquals(2, maxInProgress.get());
+        assertEquals(0, bulkhead.active());
+    }
+
+    @Test
+    void example_05_CancelledWaiters() throws InterruptedException {
+        Bulkhead bulkhead = Bulkhead.create("fileSystem", 2, 100, Duration.ofSeconds(5));
+        AtomicInteger inProgress = new AtomicInteger();
+        AtomicInteger maxInProgress = new AtomicInteger();
+
+        // Cancelling in progress and waiting calls gives every permit back
+        Flux<String> flux = Flux.range(1, 50)
+                .flatMap(i -> blockingCall(i, 20, inProgress, maxInProgress)
+                        .transform(bulkhead.protectMono()))
+                .take(5);
+
+        StepVerifier.create(flux)
+                .expectNextCount(5)
+                .verifyComplete();
+        Thread.sleep(100);
+        System.out.println(bulkhead);
+        assertEquals(0, bulkhead.active());
+        assertEquals(0, bulkhead.queued());
+
+        // And the bulkhead is still usable
+        StepVerifier.create(blockingCall(1, 1, inProgress, maxInProgress).transform(bulkhead.protectMono()))
+                .expectNext("Call 1")
+                .verifyComplete();
+        assertEquals(0, bulkhead.active());
+    }
+
+    @Test
+    void example_06_ConcurrentReleaseAndEnqueue() {
+        Bulkhead bulkhead = Bulkhead.create("fileSystem", 1, 100, Duration.ofSeconds(1));
+
+        // Four threads calling one permit back to back, the releases race with the waiters
+        // being enqueued: a waiter that misses its permit waits until maxWait
+        for (int round = 0; round < 20; round++) {
+            Flux<Integer> flux = Flux.range(0, 4)
+                    .flatMap(t -> Flux.range(0, 500)
+                            .concatMap(i -> Mono.fromCallable(() -> i).transform(bulkhead.protectMono()))
+                            .subscribeOn(Schedulers.boundedElastic()));
+
+            StepVerifier.create(flux)
+                    .expectNextCount(2_000)
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(10));
+        }
+        System.out.println(bulkhead);
+        assertEquals(0, bulkhead.timedOut());
+        assertEquals(0, bulkhead.active());
+        assertEquals(0, bulkhead.queued());
+    }
+}
@@ -0,0 +1,125 @@
+package net.eherrera.reactor.m8;
+
+import net.eherrera.reactor.blocking.FileCache;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_05_FileCache {
+    @TempDir
+    Path dir;
+
+    @Test
+    void example_01_SharedLoad() throws IOException {
+        Path file = Files.writeString(dir.resolve("1.txt"), "1\n2\n3");
+        FileCache files = FileCache.create(1024, Duration.ofMinutes(1));
+
+        // Like example_04 of Test_02_HandlingBlockingCalls, five subscriptions read the file at once
+        Mono<String> mono = files.readString(file)
+                .map(s -> {
+                    System.out.println("map: " + Thread.currentThread().getName());
+                    return s;
+                });
+
+        StepVerifier.create(Flux.range(1, 5).flatMap(i -> mono.subscribeOn(Schedulers.parallel())))
+                .expectNext("1\n2\n3", "1\n2\n3", "1\n2\n3", "1\n2\n3", "1\n2\n3")
+                .verifyComplete();
+        System.out.println(files);
+        assertEquals(1, files.loads());
+        files.dispose();
+    }
+
+    @Test
+    void example_02_MemoryReads() throws IOException {
+        Path file = Files.writeString(dir.resolve("config.properties"), "timeout=10");
+        FileCache files = FileCache.create(1024, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 100; i++) {
+            StepVerifier.create(files.readString(file))
+                    .expectNext("timeout=10")
+                    .verifyComplete();
+        }
+        System.out.println(files);
+        assertEquals(1, files.loads());
+        assertEquals(99, files.hits());
+        files.dispose();
+    }
+
+    @Test
+    void example_03_WatchInvalidation() throws IOException, InterruptedException {
+        Path file = Files.writeString(dir.resolve("config.properties"), "timeout=10");
+        FileCache files = FileCache.create(1024, Duration.ofMinutes(1));
+
+        StepVerifier.create(files.readString(file))
+                .expectNext("timeout=10")
+                .verifyComplete();
+
+        // The change is seen long before the ttl expires
+        Files.writeString(file, "timeout=20");
+        String value = null;
+        for (int i = 0; i < 50 && !"timeout=20".equals(value); i++) {
+            Thread.sleep(100);
+            value = files.readString(file).block();
+        }
+        System.out.println(files);
+        assertEquals("timeout=20", value);
+        assertTrue(files.invalidations() >= 1);
+        files.dispose();
+    }
+
+    @Test
+    void example_04_TtlRevalidation() throws IOException, InterruptedException {
+        Path file = Files.writeString(dir.resolve("config.properties"), "timeout=10");
+        FileCache files = FileCache.create(1024, Duration.ofMillis(50), Schedulers.boundedElastic(), false);
+
+        files.readString(file).block();
+        Thread.sleep(60);
+        // Expired, but the file didn't change, so it isn't read again
+        assertEquals("timeout=10", files.readString(file).block());
+        assertEquals(1, files.loads());
+        assertEquals(1, files.revalidations());
+
+        Files.writeString(file, "timeout=200");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+        Thread.sleep(60);
+        assertEquals("timeout=200", files.readString(file).block());
+        System.out.println(files);
+        assertEquals(2, files.loads());
+    }
+
+    @Test
+    void example_05_LruEviction() throws IOException {
+        Path a = Files.writeString(dir.resolve("a.txt"), "a".repeat(40));
+        Path b = Files.writeString(dir.resolve("b.txt"), "b".repeat(40));
+        Path c = Files.writeString(dir.resolve("c.txt"), "c".repeat(40));
+        FileCache files = FileCache.create(100, Duration.ofMinutes(1), Schedulers.boundedElastic(), false);
+
+        files.read(a).block();
+        files.read(b).block();
+        // a is now the most recently read, so b is evicted to make room for c
+        files.read(a).block();
+        files.read(c).block();
+        System.out.println(files);
+        assertEquals(1, files.evictions());
+        assertEquals(80, files.cachedBytes());
+
+        files.read(a).block();
+        files.read(b).block();
+        assertEquals(4, files.loads());
+    }
+}
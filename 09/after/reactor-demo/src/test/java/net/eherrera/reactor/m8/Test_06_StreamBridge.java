@@ -0,0 +1,117 @@
+package net.eherrera.reactor.m8;
+
+import net.eherrera.reactor.blocking.StreamBridge;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_06_StreamBridge {
+    final StreamBridge bridge = StreamBridge.create(16, 64, 16);
+
+    @Test
+    void example_01_ToStream() {
+        // Like Exercise02 of module 8, with the bridge instead of toStream()
+        List<Integer> list = Flux.range(1, 10)
+                .as(bridge::toStream)
+                .collect(Collectors.toList());
+        System.out.println(list);
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), list);
+    }
+
+    @Test
+    void example_02_AcrossThreads() {
+        long sum = Flux.range(0, 100_000)
+                .publishOn(Schedulers.parallel())
+                .as(bridge::toStream)
+                .mapToLong(i -> i)
+                .sum();
+        assertEquals(100_000L * 99_999 / 2, sum);
+    }
+
+    @Test
+    void example_03_Watermarks() {
+        List<Long> requests = new CopyOnWriteArrayList<>();
+
+        long count = Flux.range(0, 1000)
+                .doOnRequest(requests::add)
+                .as(bridge::toStream)
+                .filter(i -> true)
+                .count();
+        System.out.println(requests);
+        assertEquals(1000, count);
+        // 64 ahead, then 48 more every time the buffer falls to 16
+        assertEquals(64L, requests.get(0));
+        assertTrue(requests.stream().skip(1).allMatch(n -> n == 48L));
+    }
+
+    @Test
+    void example_04_KnownSize() {
+        Spliterator<Integer> spliterator = bridge.toStream(Flux.range(0, 1000), 1000).spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED));
+        assertEquals(1000, spliterator.estimateSize());
+        spliterator.tryAdvance(i -> { });
+        assertEquals(999, spliterator.estimateSize());
+
+        // Without a size, it's unknown
+        assertEquals(Long.MAX_VALUE, bridge.toStream(Flux.range(0, 1000)).spliterator().estimateSize());
+    }
+
+    @Test
+    void example_05_ParallelStream() {
+        long sum = Flux.range(0, 100_000)
+                .publishOn(Schedulers.parallel())
+                .as(flux -> bridge.toStream(flux, 100_000))
+                .parallel()
+                .mapToLong(i -> i)
+                .sum();
+        assertEquals(100_000L * 99_999 / 2, sum);
+    }
+
+    @Test
+    void example_06_Error() {
+        Stream<Integer> stream = Flux.range(1, 5)
+                .map(i -> 10 / (i - 3))
+                .as(bridge::toStream);
+        RuntimeException e = assertThrows(RuntimeException.class, () -> stream.forEach(System.out::println));
+        assertTrue(e instanceof ArithmeticException);
+    }
+
+    @Test
+    void example_07_CloseCancels() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+
+        try (Stream<Integer> stream = Flux.range(0, Integer.MAX_VALUE)
+                .doOnCancel(() -> cancelled.set(true))
+                .as(bridge::toStream)) {
+            assertEquals(List.of(0, 1, 2), stream.limit(3).collect(Collectors.toList()));
+        }
+        assertTrue(cancelled.get());
+    }
+
+    @Test
+    void example_08_ToIterable() {
+        Iterable<Integer> iterable = bridge.toIterable(Flux.range(1, 3).publishOn(Schedulers.parallel()));
+        // Every iterator subscribes again
+        for (int round = 0; round < 2; round++) {
+            int expected = 1;
+            for (Integer i : iterable) {
+                assertEquals(expected++, i);
+            }
+            assertEquals(4, expected);
+        }
+    }
+}
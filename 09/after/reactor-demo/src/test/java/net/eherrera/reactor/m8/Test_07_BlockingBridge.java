@@ -0,0 +1,95 @@
+package net.eherrera.reactor.m8;
+
+import net.eherrera.reactor.blocking.BlockingBridge;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_07_BlockingBridge {
+    @Test
+    void example_01_Block() {
+        // Same as example_01 of Test_01_BlockMethods
+        Integer valueMono = BlockingBridge.block(Mono.just(1));
+        System.out.println(valueMono);
+        assertEquals(1, valueMono);
+
+        // From another thread
+        assertEquals(2, BlockingBridge.block(Mono.just(2).delayElement(Duration.ofMillis(50))));
+        assertNull(BlockingBridge.block(Mono.empty()));
+        assertFalse(BlockingBridge.isVirtual(Thread.currentThread()));
+    }
+
+    @Test
+    void example_02_BlockWithDuration() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+
+        // Same as example_02 of Test_01_BlockMethods
+        Flux<Integer> flux = Flux.just(1, 2, 3)
+                .delayElements(Duration.ofSeconds(1))
+                .doOnCancel(() -> cancelled.set(true));
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> BlockingBridge.blockLast(flux, Duration.ofMillis(1)));
+        System.out.println(e.getMessage());
+        assertTrue(cancelled.get());
+
+        assertEquals(3, BlockingBridge.blockLast(Flux.just(1, 2, 3).delayElements(Duration.ofMillis(10)),
+                Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void example_03_BlockOptionalAndFirst() {
+        assertEquals(Optional.empty(), BlockingBridge.blockOptional(Mono.empty(), Duration.ofSeconds(1)));
+        assertEquals(Optional.of(1), BlockingBridge.blockOptional(Mono.just(1)));
+        assertEquals(1, BlockingBridge.blockFirst(Flux.range(1, 1000).publishOn(Schedulers.parallel())));
+    }
+
+    @Test
+    void example_04_Errors() {
+        Mono<Integer> failing = Mono.<Integer>error(new IllegalArgumentException("boom"))
+                .delaySubscription(Duration.ofMillis(10));
+        assertThrows(IllegalArgumentException.class, () -> BlockingBridge.block(failing));
+
+        // Checked exceptions are wrapped, like with block()
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> BlockingBridge.block(Mono.error(new Exception("checked"))));
+        assertEquals("checked", e.getCause().getMessage());
+    }
+
+    @Test
+    void example_05_NotOnNonBlockingThreads() {
+        Mono<Integer> mono = Mono.fromCallable(() -> BlockingBridge.block(Mono.just(1)))
+                .subscribeOn(Schedulers.parallel());
+
+        StepVerifier.create(mono)
+                .verifyError(IllegalStateException.class);
+    }
+
+    @Test
+    void example_06_Interrupted() throws InterruptedException {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Thread caller = Thread.currentThread();
+        Schedulers.parallel().schedule(caller::interrupt, 50, TimeUnit.MILLISECONDS);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> BlockingBridge.block(Mono.never().doOnCancel(() -> cancelled.set(true))));
+        assertTrue(e.getCause() instanceof InterruptedException);
+        assertTrue(Thread.interrupted());
+        assertTrue(cancelled.get());
+    }
+}
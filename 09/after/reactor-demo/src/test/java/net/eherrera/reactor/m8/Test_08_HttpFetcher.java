@@ -0,0 +1,77 @@
+package net.eherrera.reactor.m8;
+
+import net.eherrera.reactor.http.HttpFetcher;
+import net.eherrera.reactor.http.StubHttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_08_HttpFetcher {
+    StubHttpServer server;
+    HttpFetcher fetcher;
+
+    @BeforeEach
+    void setUp() {
+        server = StubHttpServer.start("URL content");
+        fetcher = HttpFetcher.create("test", 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fetcher.dispose();
+        server.dispose();
+    }
+
+    @Test
+    void example_01_Fetch() {
+        // Like Exercise01 of module 8, offline
+        Optional<String> content = fetcher.fetch(server.url("/")).blockOptional(Duration.ofSeconds(5));
+        content.ifPresentOrElse(
+                c -> System.out.println("URL content: " + c),
+                () -> System.out.println("The Mono completed empty.")
+        );
+        assertEquals(Optional.of("URL content"), content);
+    }
+
+    @Test
+    void example_02_ConditionalGet() {
+        String url = server.url("/");
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(fetcher.fetch(url))
+                    .expectNext("URL content")
+                    .verifyComplete();
+        }
+        System.out.println(fetcher + " " + server);
+        // Only the first response has the body
+        assertEquals(3, server.requests());
+        assertEquals(2, server.notModified());
+        assertEquals(2, fetcher.notModified());
+    }
+
+    @Test
+    void example_03_ConnectionReuse() {
+        // Different URLs, so every request transfers the body
+        Flux<String> flux = Flux.range(1, 200)
+                .flatMap(i -> fetcher.fetch(server.url("/" + i)), 8);
+
+        StepVerifier.create(flux)
+                .expectNextCount(200)
+                .verifyComplete();
+        System.out.println(fetcher + " " + server);
+        assertEquals(200, server.requests());
+        // Never more connections than the pool allows
+        assertTrue(server.connections() <= 4);
+    }
+}
@@ -0,0 +1,147 @@
+package net.eherrera.reactor.m8;
+
+import net.eherrera.reactor.blocking.FileTailer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_09_FileTailer {
+    static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @TempDir
+    Path dir;
+
+    // The poll interval is long, the lines come from the WatchService events
+    final FileTailer tailer = FileTailer.create(Duration.ofSeconds(30));
+
+    @AfterEach
+    void tearDown() {
+        tailer.dispose();
+    }
+
+    static void append(Path file, String text) {
+        try {
+            Files.writeString(file, text, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    void example_01_AppendedLines() throws IOException {
+        Path file = Files.writeString(dir.resolve("app.log"), "1\n2\n");
+
+        StepVerifier.create(tailer.tail(file))
+                .expectNext("1", "2")
+                .then(() -> append(file, "3\n4"))
+                .expectNext("3")
+                // A line is only emitted once it's complete
+                .then(() -> append(file, "5\r\n"))
+                .expectNext("45")
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void example_02_Backpressure() throws IOException {
+        String lines = IntStream.range(0, 10_000)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining("\n", "", "\n"));
+        Path file = Files.writeString(dir.resolve("feed.txt"), lines);
+
+        StepVerifier.create(tailer.tail(file), 0)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(100))
+                .thenRequest(3)
+                .expectNext("0", "1", "2")
+                .expectNoEvent(Duration.ofMillis(100))
+                .thenRequest(9_997)
+                .expectNextCount(9_997)
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void example_03_Rotation() throws IOException {
+        Path file = Files.writeString(dir.resolve("app.log"), "old 1\n");
+        Path rotated = dir.resolve("app.log.1");
+
+        StepVerifier.create(tailer.tail(file))
+                .expectNext("old 1")
+                .then(() -> {
+                    try {
+                        // Written just before the rotation, still read from the old file
+                        append(file, "old 2\n");
+                        Files.move(file, rotated);
+                        Files.writeString(file, "new 1\n");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .expectNext("old 2", "new 1")
+                .then(() -> append(file, "new 2\n"))
+                .expectNext("new 2")
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void example_04_Truncation() throws IOException {
+        Path file = Files.writeString(dir.resolve("app.log"), "a long first line\n");
+
+        StepVerifier.create(tailer.tail(file))
+                .expectNext("a long first line")
+                .then(() -> {
+                    try {
+                        Files.writeString(file, "short\n", StandardOpenOption.TRUNCATE_EXISTING);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .expectNext("short")
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void example_05_PollingFallback() throws IOException {
+        Path file = Files.writeString(dir.resolve("app.log"), "1\n");
+        FileTailer polling = FileTailer.create(Duration.ofMillis(50), Schedulers.boundedElastic(),
+                false, StandardCharsets.UTF_8);
+
+        // Without watching, from the end of the file
+        StepVerifier.create(polling.tail(file, Files.size(file)))
+                .then(() -> append(file, "2\n"))
+                .expectNext("2")
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void example_06_NotCreatedYet() {
+        Path file = dir.resolve("later.log");
+
+        StepVerifier.create(tailer.tail(file))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(100))
+                .then(() -> append(file, "finally\n"))
+                .expectNext("finally")
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+}
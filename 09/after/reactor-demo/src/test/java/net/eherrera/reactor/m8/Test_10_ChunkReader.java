@@ -0,0 +1,127 @@
+package net.eherrera.reactor.m8;
+
+import net.eherrera.reactor.blocking.ByteBufferPool;
+import net.eherrera.reactor.blocking.Chunk;
+import net.eherrera.reactor.blocking.ChunkReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class Test_10_ChunkReader {
+    @TempDir
+    Path dir;
+
+    final ByteBufferPool pool = ByteBufferPool.create(4096, 8);
+    final ChunkReader reader = ChunkReader.create(pool);
+
+    // Leak detection: every test must leave every chunk released
+    @AfterEach
+    void checkLeaks() {
+        System.out.println(pool);
+        assertEquals(0, pool.outstanding());
+        assertEquals(0, pool.leaks());
+    }
+
+    Path file(int size) throws IOException {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return Files.write(dir.resolve("data.bin"), bytes);
+    }
+
+    @Test
+    void example_01_Chunks() throws IOException {
+        Path file = file(10_000);
+        byte[] expected = Files.readAllBytes(file);
+        byte[] actual = new byte[expected.length];
+
+        StepVerifier.create(reader.read(file)
+                        .map(chunk -> {
+                            int size = chunk.buffer().remaining();
+                            chunk.buffer().get(actual, (int) chunk.offset(), size);
+                            chunk.release();
+                            return size;
+                        }))
+                .expectNext(4096, 4096, 1808)
+                .verifyComplete();
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void example_02_BuffersAreReused() throws IOException {
+        Path file = file(1024 * 1024);
+
+        // 256 chunks, read and processed one after the other with the same buffers
+        StepVerifier.create(reader.read(file, ByteBuffer::remaining).reduce(0, Integer::sum))
+                .expectNext(1024 * 1024)
+                .verifyComplete();
+        assertTrue(pool.allocated() <= 2);
+    }
+
+    @Test
+    void example_03_ReleaseDiscarded() throws IOException, InterruptedException {
+        Path file = file(1024 * 1024);
+
+        // The chunks queued by publishOn when take cancels are released by the discard hook
+        StepVerifier.create(reader.read(file)
+                        .publishOn(Schedulers.parallel())
+                        .take(3)
+                        .doOnNext(Chunk::release)
+                        .doOnDiscard(Chunk.class, Chunk::release))
+                .expectNextCount(3)
+                .verifyComplete();
+        // publishOn clears its queue on its own thread
+        for (int i = 0; i < 50 && pool.outstanding() > 0; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void example_04_ReleasedChunk() {
+        Chunk chunk = pool.acquire();
+        chunk.release();
+        chunk.release();
+        assertThrows(IllegalStateException.class, chunk::buffer);
+    }
+
+    @Test
+    void example_05_LeakDetection() throws InterruptedException {
+        ByteBufferPool leaky = ByteBufferPool.create(4096, 8);
+
+        // Never released
+        List<Chunk> chunks = new ArrayList<>();
+        Flux.range(0, 3).map(i -> leaky.acquire()).subscribe(chunks::add);
+        assertEquals(3, leaky.outstanding());
+        chunks.clear();
+
+        for (int i = 0; i < 100 && leaky.leaks() < 3; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        System.out.println(leaky);
+        assertEquals(3, leaky.leaks());
+        assertEquals(0, leaky.outstanding());
+        // The leaked buffers are left to the garbage collector, not handed out again
+        assertEquals(0, leaky.idle());
+        leaky.acquire().release();
+        assertEquals(4, leaky.allocated());
+    }
+}